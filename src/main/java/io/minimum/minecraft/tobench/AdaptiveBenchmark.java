@@ -0,0 +1,78 @@
+package io.minimum.minecraft.tobench;
+
+import io.minimum.minecraft.tobench.impls.AdaptiveEventBus;
+import io.minimum.minecraft.tobench.impls.CHMEventBus;
+import io.minimum.minecraft.tobench.impls.COWEventBus;
+import io.minimum.minecraft.tobench.impls.LockingEventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates a proxy starting up: a burst of listener registrations on a fresh
+ * bus, followed by a long steady-state run of posts.
+ */
+@State(Scope.Benchmark)
+public class AdaptiveBenchmark {
+
+    private static final int LISTENERS = 200;
+    private static final int POSTS = 1000000;
+
+    @Param({"locking", "chm", "cow", "adaptive"})
+    private String bus;
+
+    private Object[] listeners;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        listeners = new Object[LISTENERS];
+        for (int i = 0; i < LISTENERS; i++) {
+            listeners[i] = new MyBenchmark.TestEventHandler(blackhole);
+        }
+    }
+
+    private EventBus createBus() {
+        switch (bus) {
+            case "locking":
+                return new LockingEventBus();
+            case "chm":
+                return new CHMEventBus();
+            case "cow":
+                return new COWEventBus();
+            case "adaptive":
+                // Settle quickly, the whole steady state only lasts a few hundred milliseconds here.
+                return new AdaptiveEventBus(null, null, 1, 10000);
+            default:
+                throw new IllegalArgumentException(bus);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public EventBus startupThenSteadyState() {
+        EventBus eventBus = createBus();
+        for (Object listener : listeners) {
+            eventBus.register(listener);
+        }
+        for (int i = 0; i < POSTS; i++) {
+            eventBus.post(MyBenchmark.TestEvent.EVENT);
+        }
+        return eventBus;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(AdaptiveBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,133 @@
+package io.minimum.minecraft.tobench;
+
+import io.minimum.minecraft.tobench.impls.AffinityEventBus;
+import io.minimum.minecraft.tobench.impls.COWEventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Posts batches of per-connection events, round robin over 1000
+ * connections, either directly or onto {@link AffinityEventBus} loops keyed
+ * by connection. The handler keeps unsynchronized per-connection state and
+ * counts events seen out of order, which fails the iteration.
+ */
+@State(Scope.Benchmark)
+public class AffinityBenchmark {
+
+    private static final int CONNECTIONS = 1000;
+    private static final int EVENTS = 10000;
+
+    private final AtomicLong outOfOrder = new AtomicLong();
+    private final Connection[] connections = new Connection[CONNECTIONS];
+    private volatile CountDownLatch remaining;
+    private COWEventBus eventBus;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < CONNECTIONS; i++) {
+            connections[i] = new Connection();
+        }
+        eventBus = new COWEventBus();
+        eventBus.register(new ConnectionHandler());
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkOrder() {
+        if (outOfOrder.get() != 0) {
+            throw new IllegalStateException(outOfOrder.get() + " events were dispatched out of order");
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Loops {
+        @Param({"8", "16", "32", "64"})
+        private int loops;
+
+        private AffinityEventBus affinityEventBus;
+
+        @Setup
+        public void setup(AffinityBenchmark benchmark) {
+            affinityEventBus = new AffinityEventBus(benchmark.eventBus, loops);
+        }
+
+        @TearDown
+        public void tearDown() {
+            affinityEventBus.close();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @OperationsPerInvocation(EVENTS)
+    public void directPost() throws InterruptedException {
+        remaining = new CountDownLatch(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            Connection connection = connections[i % CONNECTIONS];
+            eventBus.post(new ConnectionEvent(connection, ++connection.posted));
+        }
+        remaining.await();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @OperationsPerInvocation(EVENTS)
+    public void affinityPost(Loops loops) throws InterruptedException {
+        remaining = new CountDownLatch(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            Connection connection = connections[i % CONNECTIONS];
+            loops.affinityEventBus.post(new ConnectionEvent(connection, ++connection.posted), connection);
+        }
+        remaining.await();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(AffinityBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+
+    public static class Connection {
+        // Only touched by the posting thread.
+        private int posted;
+        // Only touched by the handler, on the connection's loop.
+        private int handled;
+    }
+
+    public static class ConnectionEvent {
+        private final Connection connection;
+        private final int sequence;
+
+        public ConnectionEvent(Connection connection, int sequence) {
+            this.connection = connection;
+            this.sequence = sequence;
+        }
+    }
+
+    public class ConnectionHandler {
+        @EventHandler
+        public void onConnectionEvent(ConnectionEvent event) {
+            Connection connection = event.connection;
+            if (event.sequence != connection.handled + 1) {
+                outOfOrder.incrementAndGet();
+            }
+            connection.handled = event.sequence;
+            // Simulate decoding and handling a packet.
+            Blackhole.consumeCPU(200);
+            remaining.countDown();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package io.minimum.minecraft.tobench;
+
+import java.text.MessageFormat;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The default {@link EventExceptionHandler}. Failures are only counted on the
+ * posting thread, per handler and exception type; a shared background thread
+ * logs one summary per pair and interval, with the stack trace of the first
+ * failure seen.
+ * <p>
+ * Optionally, a handler failing at least {@code disableThreshold} times within
+ * one interval, whatever it threw, is disabled and will no longer receive
+ * events.
+ * <p>
+ * Counters are dropped once an interval passes without failures, so
+ * handlers of unregistered listeners aren't kept alive.
+ */
+public class AggregatingExceptionHandler implements EventExceptionHandler
+{
+
+    private static final String SUMMARY = "Listener {0} method {1} threw {2} {3} time(s) in the last {4} ms";
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor( new ThreadFactory()
+    {
+        @Override
+        public Thread newThread(Runnable r)
+        {
+            Thread thread = new Thread( r, "EventBus Exception Reporter" );
+            thread.setDaemon( true );
+            return thread;
+        }
+    } );
+
+    private final ConcurrentMap<FailureKey, Failures> failures = new ConcurrentHashMap<>();
+    // Failures of any type per handler, only counted when handlers may be disabled.
+    private final ConcurrentMap<EventHandlerMethod, AtomicLong> handlerFailures = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Runnable flushTask = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            flush();
+        }
+    };
+    private final Logger logger;
+    private final long intervalMillis;
+    private final int disableThreshold;
+
+    public AggregatingExceptionHandler(Logger logger)
+    {
+        this( logger, 5000, 0 );
+    }
+
+    /**
+     * @param logger logger to report to, the global logger if null
+     * @param intervalMillis how often summaries are logged
+     * @param disableThreshold failures within one interval after which a
+     * handler is disabled, or 0 to never disable handlers
+     */
+    public AggregatingExceptionHandler(Logger logger, long intervalMillis, int disableThreshold)
+    {
+        this.logger = ( logger == null ) ? Logger.getLogger( Logger.GLOBAL_LOGGER_NAME ) : logger;
+        this.intervalMillis = intervalMillis;
+        this.disableThreshold = disableThreshold;
+    }
+
+    @Override
+    public void handleException(Object event, EventHandlerMethod handler, Throwable cause)
+    {
+        FailureKey key = new FailureKey( handler, cause.getClass() );
+        Failures current = failures.get( key );
+        if ( current == null )
+        {
+            Failures created = new Failures( cause );
+            current = failures.putIfAbsent( key, created );
+            if ( current == null )
+            {
+                current = created;
+            }
+        }
+
+        current.count.incrementAndGet();
+
+        if ( disableThreshold > 0 )
+        {
+            AtomicLong total = handlerFailures.get( handler );
+            if ( total == null )
+            {
+                AtomicLong created = new AtomicLong();
+                total = handlerFailures.putIfAbsent( handler, created );
+                if ( total == null )
+                {
+                    total = created;
+                }
+            }
+            if ( total.incrementAndGet() >= disableThreshold )
+            {
+                handler.disable();
+            }
+        }
+
+        scheduleFlush();
+    }
+
+    private void scheduleFlush()
+    {
+        if ( flushScheduled.compareAndSet( false, true ) )
+        {
+            FLUSHER.schedule( flushTask, intervalMillis, TimeUnit.MILLISECONDS );
+        }
+    }
+
+    /**
+     * Logs and resets the counters gathered since the last flush. Normally
+     * only called from the background thread, which keeps flushing until no
+     * counters are left.
+     */
+    public synchronized void flush()
+    {
+        flushScheduled.set( false );
+        for ( Map.Entry<EventHandlerMethod, AtomicLong> entry : handlerFailures.entrySet() )
+        {
+            if ( entry.getValue().getAndSet( 0 ) == 0 )
+            {
+                handlerFailures.remove( entry.getKey(), entry.getValue() );
+            }
+        }
+        boolean loggable = logger.isLoggable( Level.WARNING );
+        // A handler failing with several exception types is reported disabled once.
+        Set<EventHandlerMethod> disabled = Collections.newSetFromMap( new IdentityHashMap<EventHandlerMethod, Boolean>() );
+        for ( Map.Entry<FailureKey, Failures> entry : failures.entrySet() )
+        {
+            FailureKey key = entry.getKey();
+            Failures value = entry.getValue();
+            long count = value.count.getAndSet( 0 );
+            if ( count == 0 )
+            {
+                // Nothing since the last flush, stop tracking it. A failure racing with
+                // this removal is not reported, which is fine for a summary.
+                failures.remove( key, value );
+                continue;
+            }
+            if ( !loggable )
+            {
+                continue;
+            }
+
+            Object[] params = new Object[]
+            {
+                key.handler.getListener(), key.handler.getMethodName(), key.exception.getName(), count, intervalMillis
+            };
+            if ( !value.reported )
+            {
+                value.reported = true;
+                logger.log( Level.WARNING, MessageFormat.format( SUMMARY, params ), value.first );
+            } else
+            {
+                logger.log( Level.WARNING, SUMMARY, params );
+            }
+            if ( key.handler.isDisabled() && !value.disabledReported )
+            {
+                value.disabledReported = true;
+                if ( disabled.add( key.handler ) )
+                {
+                    logger.log( Level.WARNING, "Disabled method {1} of listener {0} after repeated failures", params );
+                }
+            }
+        }
+
+        // Entries are only removed by a flush finding them idle, so keep going
+        // until they all are, or they'd pin their handlers and listeners.
+        if ( !failures.isEmpty() || !handlerFailures.isEmpty() )
+        {
+            scheduleFlush();
+        }
+    }
+
+    private static final class FailureKey
+    {
+
+        private final EventHandlerMethod handler;
+        private final Class<? extends Throwable> exception;
+
+        private FailureKey(EventHandlerMethod handler, Class<? extends Throwable> exception)
+        {
+            this.handler = handler;
+            this.exception = exception;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if ( !( o instanceof FailureKey ) )
+            {
+                return false;
+            }
+            FailureKey other = (FailureKey) o;
+            return handler == other.handler && exception == other.exception;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * System.identityHashCode( handler ) + exception.hashCode();
+        }
+    }
+
+    private static final class Failures
+    {
+
+        private final AtomicLong count = new AtomicLong();
+        private final Throwable first;
+        // Guarded by the AggregatingExceptionHandler monitor, only touched in flush().
+        private boolean reported;
+        private boolean disabledReported;
+
+        private Failures(Throwable first)
+        {
+            this.first = first;
+        }
+    }
+}
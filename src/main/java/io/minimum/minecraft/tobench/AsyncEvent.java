@@ -0,0 +1,110 @@
+package io.minimum.minecraft.tobench;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * An event whose handlers may finish asynchronously, e.g. after an auth
+ * lookup during login. A handler registers an intent by returning a
+ * {@link CompletionStage} or passing one to {@link #registerIntent}; the
+ * completion callback runs once dispatch has finished and every intent has
+ * completed. Nothing blocks or polls while waiting.
+ * <p>
+ * Must be posted through an {@link io.minimum.minecraft.tobench.impls.AsyncEventBus},
+ * otherwise the callback never runs. It runs on whichever thread completes
+ * the last intent, or on the posting thread if none are outstanding by the
+ * end of dispatch. An event can only be posted once.
+ */
+public abstract class AsyncEvent<T extends AsyncEvent<T>>
+{
+
+    private static final int NEW = 0;
+    private static final int DISPATCHING = 1;
+    private static final int DISPATCHED = 2;
+
+    private final BiConsumer<? super T, Throwable> done;
+    private final AtomicInteger state = new AtomicInteger( NEW );
+    // Starts at one, held by the dispatch itself until it returns.
+    private final AtomicInteger intents = new AtomicInteger( 1 );
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final BiConsumer<Object, Throwable> completeIntent = new BiConsumer<Object, Throwable>()
+    {
+        @Override
+        public void accept(Object result, Throwable t)
+        {
+            if ( t != null )
+            {
+                failure.compareAndSet( null, t );
+            }
+            release();
+        }
+    };
+
+    /**
+     * @param done called with the event and the failure of the first intent
+     * that completed exceptionally, or null
+     */
+    protected AsyncEvent(BiConsumer<? super T, Throwable> done)
+    {
+        this.done = done;
+    }
+
+    /**
+     * Delays completion of this event until the stage completes.
+     *
+     * @throws IllegalStateException if the event already completed
+     */
+    public void registerIntent(CompletionStage<?> stage)
+    {
+        int current;
+        do
+        {
+            current = intents.get();
+            if ( current == 0 )
+            {
+                throw new IllegalStateException( "Event " + getClass().getName() + " already completed" );
+            }
+        } while ( !intents.compareAndSet( current, current + 1 ) );
+        stage.whenComplete( completeIntent );
+    }
+
+    /**
+     * Called by the bus before dispatching the event.
+     *
+     * @throws IllegalStateException if the event was already posted, as a
+     * second dispatch would release its intents twice
+     */
+    public final void preCall()
+    {
+        if ( !state.compareAndSet( NEW, DISPATCHING ) )
+        {
+            throw new IllegalStateException( "Event " + getClass().getName() + " was already posted" );
+        }
+    }
+
+    /**
+     * Called by the bus once dispatch returned, releasing the dispatch's own
+     * intent.
+     *
+     * @throws IllegalStateException if the event isn't being dispatched
+     */
+    public final void postCall()
+    {
+        if ( !state.compareAndSet( DISPATCHING, DISPATCHED ) )
+        {
+            throw new IllegalStateException( "Event " + getClass().getName() + " is not being dispatched" );
+        }
+        release();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void release()
+    {
+        if ( intents.decrementAndGet() == 0 )
+        {
+            done.accept( (T) this, failure.get() );
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package io.minimum.minecraft.tobench;
+
+/**
+ * An event for which only the latest value matters, such as a position or
+ * status update. When posted to a
+ * {@link io.minimum.minecraft.tobench.impls.CoalescingEventBus}, events of the
+ * same class with equal keys posted within one window are merged and only the
+ * last one is dispatched.
+ */
+public interface Coalescable
+{
+
+    /**
+     * Returns the key identifying what this event updates, e.g. the player
+     * whose position changed. Must implement equals and hashCode.
+     */
+    Object getCoalescingKey();
+}
@@ -0,0 +1,109 @@
+package io.minimum.minecraft.tobench;
+
+import io.minimum.minecraft.tobench.impls.COWEventBus;
+import io.minimum.minecraft.tobench.impls.CoalescingEventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates 10,000 position updates per second spread over a number of
+ * players. One operation is one 50 ms tick, i.e. 500 updates followed by a
+ * flush, so the CPU time spent per second is 20 times the reported time.
+ */
+@State(Scope.Benchmark)
+public class CoalescingBenchmark {
+
+    private static final int UPDATES_PER_TICK = 500;
+
+    @Param({"10", "100", "500"})
+    private int players;
+
+    private COWEventBus directEventBus;
+    private CoalescingEventBus coalescingEventBus;
+    private PositionEvent[] updates;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        directEventBus = new COWEventBus();
+        coalescingEventBus = new CoalescingEventBus(new COWEventBus());
+        for (int i = 0; i < 4; i++) {
+            PositionEventHandler handler = new PositionEventHandler(blackhole);
+            directEventBus.register(handler);
+            coalescingEventBus.register(handler);
+        }
+
+        updates = new PositionEvent[UPDATES_PER_TICK];
+        for (int i = 0; i < UPDATES_PER_TICK; i++) {
+            updates[i] = new PositionEvent(i % players, i, 64, -i);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void directTick() {
+        for (PositionEvent update : updates) {
+            directEventBus.post(update);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void coalescingTick() {
+        for (PositionEvent update : updates) {
+            coalescingEventBus.post(update);
+        }
+        coalescingEventBus.flush();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(CoalescingBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+
+    public static class PositionEvent implements Coalescable {
+        private final Integer player;
+        private final double x;
+        private final double y;
+        private final double z;
+
+        public PositionEvent(int player, double x, double y, double z) {
+            this.player = player;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        @Override
+        public Object getCoalescingKey() {
+            return player;
+        }
+    }
+
+    public static class PositionEventHandler {
+        private final Blackhole blackhole;
+
+        public PositionEventHandler(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @EventHandler
+        public void onPosition(PositionEvent event) {
+            // Roughly what a region or visibility check would cost.
+            Blackhole.consumeCPU(200);
+            blackhole.consume(event.x + event.y + event.z);
+        }
+    }
+}
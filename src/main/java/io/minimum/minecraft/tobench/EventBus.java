@@ -0,0 +1,19 @@
+package io.minimum.minecraft.tobench;
+
+/**
+ * An {@link EventPublisher} whose listeners can be registered and
+ * unregistered at any time.
+ */
+public interface EventBus extends EventPublisher
+{
+
+    /**
+     * Registers all {@link EventHandler} methods of the listener.
+     */
+    void register(Object listener);
+
+    /**
+     * Unregisters all {@link EventHandler} methods of the listener.
+     */
+    void unregister(Object listener);
+}
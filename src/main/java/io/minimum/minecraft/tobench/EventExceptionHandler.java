@@ -0,0 +1,18 @@
+package io.minimum.minecraft.tobench;
+
+/**
+ * Receives exceptions thrown by event handlers. Called on the posting thread,
+ * so implementations should return quickly.
+ */
+public interface EventExceptionHandler
+{
+
+    /**
+     * Called when a handler throws while an event is being dispatched to it.
+     *
+     * @param event the event being dispatched
+     * @param handler the handler which threw
+     * @param cause the exception thrown by the handler
+     */
+    void handleException(Object event, EventHandlerMethod handler, Throwable cause);
+}
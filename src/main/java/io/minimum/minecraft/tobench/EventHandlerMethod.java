@@ -1,23 +1,75 @@
 package io.minimum.minecraft.tobench;
 
 
+import io.minimum.minecraft.tobench.jfr.HandlerEvent;
+
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
 
 public class EventHandlerMethod
 {
     private final Object listener;
     private final Method method;
+    private final ListenerDispatcher dispatcher;
+    private final int handler;
+    private final byte priority;
+    private volatile boolean disabled;
 
-    public EventHandlerMethod(Object listener, Method method)
+    public EventHandlerMethod(Object listener, Method method, byte priority)
     {
         this.listener = listener;
         this.method = method;
+        this.dispatcher = null;
+        this.handler = -1;
+        this.priority = priority;
+    }
+
+    /**
+     * Creates a handler that calls through a generated dispatcher instead of
+     * reflection. {@link #getMethod()} will return null for such handlers.
+     */
+    public EventHandlerMethod(Object listener, ListenerDispatcher dispatcher, int handler)
+    {
+        this.listener = listener;
+        this.method = null;
+        this.dispatcher = dispatcher;
+        this.handler = handler;
+        this.priority = dispatcher.getPriority( handler );
     }
 
     public void invoke(Object event) throws IllegalAccessException, IllegalArgumentException, InvocationTargetException
     {
-        method.invoke( listener, event );
+        if ( disabled )
+        {
+            return;
+        }
+        HandlerEvent jfr = HandlerEvent.start();
+        Object result;
+        try
+        {
+            if ( dispatcher != null )
+            {
+                try
+                {
+                    result = dispatcher.invoke( handler, listener, event );
+                } catch ( Throwable t )
+                {
+                    // Mirror Method.invoke so callers handle both paths the same way.
+                    throw new InvocationTargetException( t );
+                }
+            } else
+            {
+                result = method.invoke( listener, event );
+            }
+        } finally
+        {
+            jfr.finish( event, this );
+        }
+        if ( result instanceof CompletionStage && event instanceof AsyncEvent )
+        {
+            ( (AsyncEvent<?>) event ).registerIntent( (CompletionStage<?>) result );
+        }
     }
 
     public Object getListener() {
@@ -27,4 +79,40 @@ public class EventHandlerMethod
     public Method getMethod() {
         return method;
     }
+
+    /**
+     * Returns the generated dispatcher this handler calls through, or null if
+     * it is invoked reflectively.
+     */
+    public ListenerDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Returns the index of this handler in its dispatcher, or -1 if it is
+     * invoked reflectively.
+     */
+    public int getHandlerIndex() {
+        return handler;
+    }
+
+    public byte getPriority() {
+        return priority;
+    }
+
+    /**
+     * Stops this handler from receiving any further events, typically because
+     * it keeps failing.
+     */
+    public void disable() {
+        disabled = true;
+    }
+
+    public boolean isDisabled() {
+        return disabled;
+    }
+
+    public String getMethodName() {
+        return dispatcher != null ? dispatcher.getMethodName( handler ) : method.getName();
+    }
 }
@@ -0,0 +1,120 @@
+package io.minimum.minecraft.tobench;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Discovers the {@link EventHandler} methods of a listener, preferring the
+ * {@link ListenerDispatcher} generated at compile time and falling back to
+ * reflection when none is present.
+ */
+public class EventHandlerScanner
+{
+
+    private static final ClassValue<ListenerDispatcher> DISPATCHERS = new ClassValue<ListenerDispatcher>()
+    {
+        @Override
+        protected ListenerDispatcher computeValue(Class<?> type)
+        {
+            try
+            {
+                Class<?> dispatcher = Class.forName( type.getName() + ListenerDispatcher.SUFFIX, true, type.getClassLoader() );
+                return (ListenerDispatcher) dispatcher.getDeclaredConstructor().newInstance();
+            } catch ( ClassNotFoundException ex )
+            {
+                return null;
+            } catch ( ReflectiveOperationException | ClassCastException ex )
+            {
+                Logger.getLogger( Logger.GLOBAL_LOGGER_NAME ).log( Level.WARNING, "Unable to load generated dispatcher for " + type, ex );
+                return null;
+            }
+        }
+    };
+    private static volatile boolean useGeneratedDispatchers = !Boolean.getBoolean( "tobench.disableGeneratedDispatchers" );
+
+    private EventHandlerScanner()
+    {
+    }
+
+    /**
+     * Toggles use of generated dispatchers; only intended for benchmarks
+     * comparing them against the reflective path.
+     */
+    public static void setUseGeneratedDispatchers(boolean use)
+    {
+        useGeneratedDispatchers = use;
+    }
+
+    /**
+     * Returns the generated dispatcher for the given listener class, or null
+     * if there is none or generated dispatchers are disabled.
+     */
+    public static ListenerDispatcher getDispatcher(Class<?> listenerClass)
+    {
+        return useGeneratedDispatchers ? DISPATCHERS.get( listenerClass ) : null;
+    }
+
+    /**
+     * Finds the handlers of the listener, keyed by event class and priority.
+     *
+     * @param listener the listener to scan
+     * @param logger logger for malformed handler methods, may be null
+     */
+    public static Map<Class<?>, Map<Byte, List<EventHandlerMethod>>> findHandlers(Object listener, Logger logger)
+    {
+        Map<Class<?>, Map<Byte, List<EventHandlerMethod>>> handler = new HashMap<>();
+        ListenerDispatcher dispatcher = getDispatcher( listener.getClass() );
+        if ( dispatcher != null )
+        {
+            for ( int i = 0; i < dispatcher.getHandlerCount(); i++ )
+            {
+                add( handler, dispatcher.getEventClass( i ), dispatcher.getPriority( i ), new EventHandlerMethod( listener, dispatcher, i ) );
+            }
+            return handler;
+        }
+
+        for ( Method m : listener.getClass().getDeclaredMethods() )
+        {
+            EventHandler annotation = m.getAnnotation( EventHandler.class );
+            if ( annotation != null )
+            {
+                Class<?>[] params = m.getParameterTypes();
+                if ( params.length != 1 )
+                {
+                    if ( logger != null )
+                    {
+                        logger.log( Level.INFO, "Method {0} in class {1} annotated with {2} does not have single argument", new Object[]
+                                {
+                                        m, listener.getClass(), annotation
+                                } );
+                    }
+                    continue;
+                }
+                add( handler, params[0], annotation.priority(), new EventHandlerMethod( listener, m, annotation.priority() ) );
+            }
+        }
+        return handler;
+    }
+
+    private static void add(Map<Class<?>, Map<Byte, List<EventHandlerMethod>>> handler, Class<?> eventClass, byte priority, EventHandlerMethod method)
+    {
+        Map<Byte, List<EventHandlerMethod>> prioritiesMap = handler.get( eventClass );
+        if ( prioritiesMap == null )
+        {
+            prioritiesMap = new HashMap<>();
+            handler.put( eventClass, prioritiesMap );
+        }
+        List<EventHandlerMethod> methods = prioritiesMap.get( priority );
+        if ( methods == null )
+        {
+            methods = new ArrayList<>( 1 );
+            prioritiesMap.put( priority, methods );
+        }
+        methods.add( method );
+    }
+}
@@ -0,0 +1,141 @@
+package io.minimum.minecraft.tobench;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-local free lists of {@link PooledEvent}s, one per event class.
+ * <p>
+ * Events go back to the free list of the thread releasing them, which is
+ * normally the posting thread. In debug mode, released events are never
+ * reused; they are only tracked weakly, so that events still reachable after
+ * a GC point at handlers keeping references.
+ */
+public class EventPool
+{
+
+    private static final int MAX_POOLED_PER_CLASS = 64;
+    private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<Constructor<?>>()
+    {
+        @Override
+        protected Constructor<?> computeValue(Class<?> type)
+        {
+            try
+            {
+                Constructor<?> constructor = type.getDeclaredConstructor();
+                constructor.setAccessible( true );
+                return constructor;
+            } catch ( NoSuchMethodException ex )
+            {
+                throw new IllegalArgumentException( "Pooled event " + type.getName() + " has no no-argument constructor", ex );
+            }
+        }
+    };
+
+    private final ClassValue<ThreadLocal<ArrayDeque<PooledEvent>>> pools = new ClassValue<ThreadLocal<ArrayDeque<PooledEvent>>>()
+    {
+        @Override
+        protected ThreadLocal<ArrayDeque<PooledEvent>> computeValue(Class<?> type)
+        {
+            return new ThreadLocal<ArrayDeque<PooledEvent>>()
+            {
+                @Override
+                protected ArrayDeque<PooledEvent> initialValue()
+                {
+                    return new ArrayDeque<>( MAX_POOLED_PER_CLASS );
+                }
+            };
+        }
+    };
+    private final boolean debug;
+    private final Queue<WeakReference<PooledEvent>> released = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger releasedSincePrune = new AtomicInteger();
+
+    public EventPool()
+    {
+        this( false );
+    }
+
+    public EventPool(boolean debug)
+    {
+        this.debug = debug;
+    }
+
+    public <T extends PooledEvent> T acquire(Class<T> type)
+    {
+        if ( !debug )
+        {
+            PooledEvent event = pools.get( type ).get().poll();
+            if ( event != null )
+            {
+                event.setReleased( false );
+                return type.cast( event );
+            }
+        }
+
+        try
+        {
+            return type.cast( CONSTRUCTORS.get( type ).newInstance() );
+        } catch ( ReflectiveOperationException ex )
+        {
+            throw new IllegalArgumentException( "Unable to create pooled event " + type.getName(), ex );
+        }
+    }
+
+    /**
+     * Resets the event and returns it to the calling thread's free list.
+     */
+    public void release(PooledEvent event)
+    {
+        if ( event.isReleased() )
+        {
+            throw new IllegalStateException( "Pooled event " + event.getClass().getName() + " released twice" );
+        }
+        event.reset();
+        event.setReleased( true );
+
+        if ( debug )
+        {
+            released.add( new WeakReference<>( event ) );
+            if ( releasedSincePrune.incrementAndGet() >= 1024 )
+            {
+                releasedSincePrune.set( 0 );
+                prune();
+            }
+            return;
+        }
+
+        ArrayDeque<PooledEvent> pool = pools.get( event.getClass() ).get();
+        if ( pool.size() < MAX_POOLED_PER_CLASS )
+        {
+            pool.push( event );
+        }
+    }
+
+    /**
+     * Returns how many released events are still reachable, which after a
+     * full GC means a handler kept a reference to them. Always 0 unless in
+     * debug mode.
+     */
+    public int countRetained()
+    {
+        prune();
+        return released.size();
+    }
+
+    private void prune()
+    {
+        for ( Iterator<WeakReference<PooledEvent>> it = released.iterator(); it.hasNext(); )
+        {
+            if ( it.next().get() == null )
+            {
+                it.remove();
+            }
+        }
+    }
+}
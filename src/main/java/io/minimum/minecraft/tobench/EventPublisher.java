@@ -0,0 +1,15 @@
+package io.minimum.minecraft.tobench;
+
+/**
+ * Common interface of all event bus implementations, including those which
+ * can't be modified once built.
+ */
+public interface EventPublisher
+{
+
+    /**
+     * Dispatches the event to all handlers registered for its exact class, in
+     * order of priority.
+     */
+    void post(Object event);
+}
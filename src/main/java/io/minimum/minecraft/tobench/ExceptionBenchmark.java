@@ -0,0 +1,98 @@
+package io.minimum.minecraft.tobench;
+
+import io.minimum.minecraft.tobench.impls.COWEventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * Posts to a bus where one of the handlers throws on every event, comparing
+ * synchronous logging against the aggregating default.
+ */
+@State(Scope.Benchmark)
+public class ExceptionBenchmark {
+
+    private COWEventBus loggingEventBus;
+    private COWEventBus aggregatingEventBus;
+    private COWEventBus disablingEventBus;
+
+    @Setup
+    public void setup(final Blackhole blackhole) {
+        // Goes through formatting and publishing like a real logger, but the records go nowhere.
+        Logger logger = Logger.getLogger("ExceptionBenchmark");
+        logger.setUseParentHandlers(false);
+        logger.addHandler(new Handler() {
+            private final Formatter formatter = new SimpleFormatter();
+
+            @Override
+            public void publish(LogRecord record) {
+                blackhole.consume(formatter.format(record));
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        loggingEventBus = new COWEventBus(logger, new LoggingExceptionHandler(logger));
+        aggregatingEventBus = new COWEventBus(logger, new AggregatingExceptionHandler(logger));
+        disablingEventBus = new COWEventBus(logger, new AggregatingExceptionHandler(logger, 5000, 1000));
+        for (COWEventBus bus : new COWEventBus[]{loggingEventBus, aggregatingEventBus, disablingEventBus}) {
+            bus.register(new MyBenchmark.TestEventHandler(blackhole));
+            bus.register(new ThrowingEventHandler());
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void loggingThrpt() {
+        loggingEventBus.post(MyBenchmark.TestEvent.EVENT);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void aggregatingThrpt() {
+        aggregatingEventBus.post(MyBenchmark.TestEvent.EVENT);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void disablingThrpt() {
+        disablingEventBus.post(MyBenchmark.TestEvent.EVENT);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ExceptionBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .threads(4)
+                .build();
+        new Runner(opt).run();
+    }
+
+    public static class ThrowingEventHandler {
+        @EventHandler
+        public void test(MyBenchmark.TestEvent event) {
+            throw new IllegalStateException("broken plugin");
+        }
+    }
+}
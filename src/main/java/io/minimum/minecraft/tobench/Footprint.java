@@ -0,0 +1,45 @@
+package io.minimum.minecraft.tobench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.Callable;
+
+/**
+ * Rough retained-heap measurements for footprint benchmarks, based on heap
+ * usage after forced GCs. Only meaningful for allocations large enough to
+ * dwarf the noise, i.e. thousands of objects.
+ */
+public class Footprint
+{
+
+    private static volatile Object sink;
+
+    private Footprint()
+    {
+    }
+
+    /**
+     * Returns how many bytes of heap the object graph returned by the
+     * allocation retains.
+     */
+    public static long retainedBytes(Callable<?> allocation) throws Exception
+    {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long before = usedAfterGc( memory );
+        // Keep the graph reachable until we've measured it.
+        sink = allocation.call();
+        long after = usedAfterGc( memory );
+        sink = null;
+        return after - before;
+    }
+
+    private static long usedAfterGc(MemoryMXBean memory) throws InterruptedException
+    {
+        for ( int i = 0; i < 3; i++ )
+        {
+            System.gc();
+            Thread.sleep( 50 );
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
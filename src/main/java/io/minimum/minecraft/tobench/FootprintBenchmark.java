@@ -0,0 +1,102 @@
+package io.minimum.minecraft.tobench;
+
+import io.minimum.minecraft.tobench.impls.COWEventBus;
+import io.minimum.minecraft.tobench.impls.CompactEventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link CompactEventBus} against {@link COWEventBus} with one
+ * listener per player registered. The heap retained per registration by
+ * each bus, excluding the listeners themselves, is printed during setup.
+ */
+@State(Scope.Benchmark)
+public class FootprintBenchmark {
+
+    @Param({"10000"})
+    private int listeners;
+
+    private MyBenchmark.TestEventHandler[] handlers;
+    private MyBenchmark.TestEventHandler churn;
+    private COWEventBus cowEventBus;
+    private CompactEventBus compactEventBus;
+
+    @Setup
+    public void setup(Blackhole blackhole) throws Exception {
+        handlers = new MyBenchmark.TestEventHandler[listeners];
+        for (int i = 0; i < listeners; i++) {
+            handlers[i] = new MyBenchmark.TestEventHandler(blackhole);
+        }
+        churn = new MyBenchmark.TestEventHandler(blackhole);
+
+        long cowBytes = Footprint.retainedBytes(new Callable<Object>() {
+            @Override
+            public Object call() {
+                cowEventBus = new COWEventBus();
+                for (MyBenchmark.TestEventHandler handler : handlers) {
+                    cowEventBus.register(handler);
+                }
+                return cowEventBus;
+            }
+        });
+        long compactBytes = Footprint.retainedBytes(new Callable<Object>() {
+            @Override
+            public Object call() {
+                compactEventBus = new CompactEventBus();
+                for (MyBenchmark.TestEventHandler handler : handlers) {
+                    compactEventBus.register(handler);
+                }
+                return compactEventBus;
+            }
+        });
+        System.out.println();
+        System.out.println("Retained bytes per registration: COWEventBus " + cowBytes / listeners + ", CompactEventBus " + compactBytes / listeners);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void cowEventBusThrpt() {
+        cowEventBus.post(MyBenchmark.TestEvent.EVENT);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void compactEventBusThrpt() {
+        compactEventBus.post(MyBenchmark.TestEvent.EVENT);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void cowEventBusChurn() {
+        cowEventBus.register(churn);
+        cowEventBus.unregister(churn);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void compactEventBusChurn() {
+        compactEventBus.register(churn);
+        compactEventBus.unregister(churn);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(FootprintBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+}
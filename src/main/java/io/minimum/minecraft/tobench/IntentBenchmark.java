@@ -0,0 +1,131 @@
+package io.minimum.minecraft.tobench;
+
+import io.minimum.minecraft.tobench.impls.AsyncEventBus;
+import io.minimum.minecraft.tobench.impls.COWEventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Runs 10k concurrent logins, each waiting on a simulated auth lookup taking
+ * 1 ms, either as {@link AsyncEvent} intents or on a pool of threads
+ * blocking until the lookup completes.
+ */
+@State(Scope.Benchmark)
+public class IntentBenchmark {
+
+    private static final int LOGINS = 10000;
+    private static final long LOOKUP_MICROS = 1000;
+
+    private final ScheduledExecutorService auth = Executors.newSingleThreadScheduledExecutor();
+    private final BiConsumer<LoginEvent, Throwable> loggedIn = new BiConsumer<LoginEvent, Throwable>() {
+        @Override
+        public void accept(LoginEvent event, Throwable failure) {
+            remaining.countDown();
+        }
+    };
+    private volatile CountDownLatch remaining;
+
+    @Param({"64"})
+    private int blockingThreads;
+
+    private ExecutorService blockingPool;
+    private AsyncEventBus asyncEventBus;
+    private COWEventBus blockingEventBus;
+
+    @Setup
+    public void setup() {
+        blockingPool = Executors.newFixedThreadPool(blockingThreads);
+        asyncEventBus = new AsyncEventBus(new COWEventBus());
+        asyncEventBus.register(new LoginHandler());
+        blockingEventBus = new COWEventBus();
+        blockingEventBus.register(new LoginHandler());
+    }
+
+    @TearDown
+    public void tearDown() {
+        blockingPool.shutdown();
+        auth.shutdown();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void asyncIntents() throws InterruptedException {
+        remaining = new CountDownLatch(LOGINS);
+        for (int i = 0; i < LOGINS; i++) {
+            asyncEventBus.post(new LoginEvent(loggedIn));
+        }
+        remaining.await();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void blockingThreads() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(LOGINS);
+        for (int i = 0; i < LOGINS; i++) {
+            blockingPool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    blockingEventBus.post(new BlockingLoginEvent());
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(IntentBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+
+    private CompletableFuture<Boolean> lookup() {
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        auth.schedule(new Runnable() {
+            @Override
+            public void run() {
+                result.complete(Boolean.TRUE);
+            }
+        }, LOOKUP_MICROS, TimeUnit.MICROSECONDS);
+        return result;
+    }
+
+    public static class LoginEvent extends AsyncEvent<LoginEvent> {
+        public LoginEvent(BiConsumer<LoginEvent, Throwable> done) {
+            super(done);
+        }
+    }
+
+    public static class BlockingLoginEvent {
+    }
+
+    public class LoginHandler {
+        @EventHandler
+        public CompletionStage<Boolean> onLogin(LoginEvent event) {
+            return lookup();
+        }
+
+        @EventHandler
+        public void onLogin(BlockingLoginEvent event) {
+            lookup().join();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package io.minimum.minecraft.tobench;
+
+/**
+ * A compile-time generated dispatcher for a single listener class, emitted by
+ * {@link io.minimum.minecraft.tobench.processor.EventHandlerProcessor} for
+ * every class declaring {@link EventHandler} methods.
+ * <p>
+ * Handlers are addressed by index; {@link #invoke(int, Object, Object)} calls
+ * the handler method directly instead of going through
+ * {@link java.lang.reflect.Method#invoke(Object, Object...)}.
+ */
+public interface ListenerDispatcher
+{
+
+    /**
+     * Suffix appended to the binary name of the listener class to form the
+     * binary name of its generated dispatcher.
+     */
+    String SUFFIX = "_EventDispatcher";
+
+    int getHandlerCount();
+
+    Class<?> getEventClass(int handler);
+
+    byte getPriority(int handler);
+
+    String getMethodName(int handler);
+
+    /**
+     * Calls the handler, returning whatever it returned, or null for void
+     * handlers.
+     */
+    Object invoke(int handler, Object listener, Object event) throws Throwable;
+}
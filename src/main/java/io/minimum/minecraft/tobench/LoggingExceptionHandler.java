@@ -0,0 +1,28 @@
+package io.minimum.minecraft.tobench;
+
+import java.text.MessageFormat;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Logs every handler failure synchronously on the posting thread.
+ */
+public class LoggingExceptionHandler implements EventExceptionHandler
+{
+
+    private final Logger logger;
+
+    public LoggingExceptionHandler(Logger logger)
+    {
+        this.logger = ( logger == null ) ? Logger.getLogger( Logger.GLOBAL_LOGGER_NAME ) : logger;
+    }
+
+    @Override
+    public void handleException(Object event, EventHandlerMethod handler, Throwable cause)
+    {
+        if ( logger.isLoggable( Level.WARNING ) )
+        {
+            logger.log( Level.WARNING, MessageFormat.format( "Error dispatching event {0} to listener {1}", event, handler.getListener() ), cause );
+        }
+    }
+}
@@ -27,6 +27,7 @@ package io.minimum.minecraft.tobench;
 
 import io.minimum.minecraft.tobench.impls.COWEventBus;
 import io.minimum.minecraft.tobench.impls.FrozenEventBus;
+import io.minimum.minecraft.tobench.impls.HotSwapFrozenEventBus;
 import io.minimum.minecraft.tobench.impls.LockingEventBus;
 import io.minimum.minecraft.tobench.impls.CHMEventBus;
 import org.openjdk.jmh.annotations.*;
@@ -45,6 +46,7 @@ public class MyBenchmark {
     private CHMEventBus chmEventBus = new CHMEventBus();
     private COWEventBus cowEventBus = new COWEventBus();
     private FrozenEventBus frozenEventBus;
+    private HotSwapFrozenEventBus hotSwapEventBus = new HotSwapFrozenEventBus();
 
     @Param({"1", "2", "4", "8", "16"})
     private int registeredHandlers;
@@ -58,8 +60,10 @@ public class MyBenchmark {
             lockingEventBus.register(h);
             cowEventBus.register(h);
             builder.register(h);
+            hotSwapEventBus.register(h);
         }
         frozenEventBus = builder.build();
+        hotSwapEventBus.flush();
     }
 
     @Benchmark
@@ -94,6 +98,13 @@ public class MyBenchmark {
         frozenEventBus.post(TestEvent.EVENT);
     }
 
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void hotSwapEventBusThrpt() {
+        hotSwapEventBus.post(TestEvent.EVENT);
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(MyBenchmark.class.getSimpleName())
@@ -107,7 +118,7 @@ public class MyBenchmark {
 
     @State(Scope.Benchmark)
     public static class TestEvent {
-        private static final TestEvent EVENT = new TestEvent();
+        static final TestEvent EVENT = new TestEvent();
     }
 
     @State(Scope.Benchmark)
@@ -0,0 +1,125 @@
+package io.minimum.minecraft.tobench;
+
+import io.minimum.minecraft.tobench.impls.COWEventBus;
+import io.minimum.minecraft.tobench.impls.SchedulingClass;
+import io.minimum.minecraft.tobench.impls.SchedulingEventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Samples the latency of login events, from posting until handled, while a
+ * background thread floods a {@link SchedulingEventBus} with chat events
+ * faster than its workers can dispatch them. With "fifo" everything shares
+ * one class, as if events were simply queued; with "weighted" logins get a
+ * class of their own, above chat. See the p0.99 row of the results; the
+ * queue gauges are printed after each iteration.
+ */
+@State(Scope.Benchmark)
+public class OverloadBenchmark {
+
+    private static final int WORKERS = 2;
+    private static final int CHAT_QUOTA = 10000;
+
+    @Param({"fifo", "weighted"})
+    private String scheduling;
+
+    private SchedulingEventBus eventBus;
+    private SchedulingClass interactive;
+    private SchedulingClass bulk;
+    private Thread flooder;
+    private volatile boolean flooding;
+
+    @Setup
+    public void setup() {
+        COWEventBus delegate = new COWEventBus();
+        delegate.register(new ProxyHandler());
+        bulk = new SchedulingClass("bulk", 1);
+        if (scheduling.equals("weighted")) {
+            interactive = new SchedulingClass("interactive", 16);
+            eventBus = new SchedulingEventBus(delegate, WORKERS, interactive, bulk);
+            eventBus.assign(LoginEvent.class, interactive, 1000);
+        } else {
+            eventBus = new SchedulingEventBus(delegate, WORKERS, bulk);
+        }
+        eventBus.assign(ChatEvent.class, bulk, CHAT_QUOTA);
+
+        flooding = true;
+        flooder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (flooding) {
+                    for (int i = 0; i < 100; i++) {
+                        eventBus.post(new ChatEvent());
+                    }
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                }
+            }
+        }, "Chat Flooder");
+        flooder.setDaemon(true);
+        flooder.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printGauges() {
+        System.out.println();
+        if (interactive != null) {
+            System.out.println(interactive);
+        }
+        System.out.println(bulk);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        flooding = false;
+        flooder.join();
+        eventBus.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void login() throws InterruptedException {
+        LoginEvent event = new LoginEvent();
+        eventBus.post(event);
+        event.handled.await();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(OverloadBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+
+    public static class LoginEvent {
+        private final CountDownLatch handled = new CountDownLatch(1);
+    }
+
+    public static class ChatEvent {
+    }
+
+    public static class ProxyHandler {
+        @EventHandler
+        public void onLogin(LoginEvent event) {
+            Blackhole.consumeCPU(2000);
+            event.handled.countDown();
+        }
+
+        @EventHandler
+        public void onChat(ChatEvent event) {
+            // Simulate filtering and relaying the message.
+            Blackhole.consumeCPU(2000);
+        }
+    }
+}
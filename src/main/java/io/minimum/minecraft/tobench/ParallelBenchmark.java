@@ -0,0 +1,79 @@
+package io.minimum.minecraft.tobench;
+
+import io.minimum.minecraft.tobench.impls.COWEventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Posts an event with 16 independent handlers at the same priority, each
+ * spinning for about 50 µs, sequentially and with parallel tiers.
+ */
+@State(Scope.Benchmark)
+public class ParallelBenchmark {
+
+    private static final int HANDLERS = 16;
+    private static final long HANDLER_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final ForkJoinPool pool = new ForkJoinPool();
+    private COWEventBus sequentialEventBus;
+    private COWEventBus parallelEventBus;
+
+    @Setup
+    public void setup() {
+        sequentialEventBus = new COWEventBus();
+        parallelEventBus = new COWEventBus();
+        for (int i = 0; i < HANDLERS; i++) {
+            sequentialEventBus.register(new SlowEventHandler());
+            parallelEventBus.register(new SlowEventHandler());
+        }
+        parallelEventBus.enableParallelDispatch(SlowEvent.class, pool, TimeUnit.MICROSECONDS.toNanos(100));
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void sequential() {
+        sequentialEventBus.post(new SlowEvent());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void parallel() {
+        parallelEventBus.post(new SlowEvent());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ParallelBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+
+    public static class SlowEvent {
+    }
+
+    public static class SlowEventHandler {
+        @EventHandler
+        public void onSlow(SlowEvent event) {
+            long deadline = System.nanoTime() + HANDLER_NANOS;
+            while (System.nanoTime() < deadline) {
+                // Simulate a handler doing real work, e.g. building a ping response.
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.minimum.minecraft.tobench;
+
+import io.minimum.minecraft.tobench.impls.COWEventBus;
+import io.minimum.minecraft.tobench.impls.PooledEventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.profile.HotspotMemoryProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares posting a freshly allocated mutable event against one recycled
+ * by a {@link PooledEventBus}. Run with the GC profilers (see main) to
+ * compare allocation and GC as well.
+ */
+@State(Scope.Benchmark)
+public class PooledBenchmark {
+
+    private COWEventBus cowEventBus = new COWEventBus();
+    private PooledEventBus pooledEventBus = new PooledEventBus(cowEventBus);
+
+    @Param({"1", "2", "4", "8", "16"})
+    private int registeredHandlers;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        for (int i = 0; i < registeredHandlers; i++) {
+            cowEventBus.register(new MutableTestEventHandler(blackhole));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void cowEventBusAllocatingThrpt() {
+        MutableTestEvent event = new MutableTestEvent();
+        event.setValue(42);
+        cowEventBus.post(event);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void pooledEventBusThrpt() {
+        MutableTestEvent event = pooledEventBus.acquire(MutableTestEvent.class);
+        event.setValue(42);
+        pooledEventBus.post(event);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PooledBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .threads(4)
+                .addProfiler(GCProfiler.class)
+                .addProfiler(HotspotMemoryProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+
+    public static class MutableTestEventHandler {
+        private final Blackhole blackhole;
+
+        public MutableTestEventHandler(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @EventHandler
+        public void test(MutableTestEvent event) {
+            blackhole.consume(event.getValue());
+        }
+    }
+
+    public static class MutableTestEvent extends PooledEvent {
+        private int value;
+
+        public int getValue() {
+            checkNotReleased();
+            return value;
+        }
+
+        public void setValue(int value) {
+            this.value = value;
+        }
+
+        @Override
+        protected void reset() {
+            value = 0;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.minimum.minecraft.tobench;
+
+/**
+ * A mutable event which is recycled through an {@link EventPool} instead of
+ * being allocated for every post. Subclasses need a no-argument constructor.
+ * <p>
+ * Handlers must not keep a reference to a pooled event once they return, as
+ * it will be reset and handed out again. In debug mode, accessors calling
+ * {@link #checkNotReleased()} catch handlers that do.
+ */
+public abstract class PooledEvent
+{
+
+    private boolean released;
+
+    /**
+     * Clears all state so the instance can be handed out again.
+     */
+    protected abstract void reset();
+
+    /**
+     * Throws if this event was already returned to its pool. Only reliable
+     * when the pool is in debug mode, as events are reused right away
+     * otherwise.
+     */
+    protected final void checkNotReleased()
+    {
+        if ( released )
+        {
+            throw new IllegalStateException( "Pooled event " + getClass().getName() + " used after being returned to its pool" );
+        }
+    }
+
+    final boolean isReleased()
+    {
+        return released;
+    }
+
+    final void setReleased(boolean released)
+    {
+        this.released = released;
+    }
+}
@@ -0,0 +1,104 @@
+package io.minimum.minecraft.tobench;
+
+import io.minimum.minecraft.tobench.impls.COWEventBus;
+import io.minimum.minecraft.tobench.impls.ScopedEventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares per-connection scopes built from {@link ScopedEventBus} children
+ * against one full {@link COWEventBus} per connection holding both the global
+ * and the local handlers. The retained heap of each approach is printed
+ * during setup.
+ */
+@State(Scope.Benchmark)
+public class ScopedBenchmark {
+
+    private static final int GLOBAL_HANDLERS = 8;
+
+    @Param({"10000"})
+    private int scopes;
+
+    private COWEventBus global;
+    private Object[] globalHandlers;
+    private ScopedEventBus[] children;
+    private COWEventBus[] fullBuses;
+    private int next;
+
+    @Setup
+    public void setup(final Blackhole blackhole) throws Exception {
+        global = new COWEventBus();
+        globalHandlers = new Object[GLOBAL_HANDLERS];
+        for (int i = 0; i < GLOBAL_HANDLERS; i++) {
+            globalHandlers[i] = new MyBenchmark.TestEventHandler(blackhole);
+            global.register(globalHandlers[i]);
+        }
+
+        long childBytes = Footprint.retainedBytes(new Callable<Object>() {
+            @Override
+            public Object call() {
+                children = new ScopedEventBus[scopes];
+                for (int i = 0; i < scopes; i++) {
+                    children[i] = global.createChild();
+                    children[i].register(new MyBenchmark.TestEventHandler(blackhole));
+                    children[i].post(MyBenchmark.TestEvent.EVENT);
+                }
+                return children;
+            }
+        });
+        long fullBytes = Footprint.retainedBytes(new Callable<Object>() {
+            @Override
+            public Object call() {
+                fullBuses = new COWEventBus[scopes];
+                for (int i = 0; i < scopes; i++) {
+                    fullBuses[i] = new COWEventBus();
+                    for (Object handler : globalHandlers) {
+                        fullBuses[i].register(handler);
+                    }
+                    fullBuses[i].register(new MyBenchmark.TestEventHandler(blackhole));
+                }
+                return fullBuses;
+            }
+        });
+        System.out.println();
+        System.out.println("Retained bytes per scope: child bus " + childBytes / scopes + ", full bus " + fullBytes / scopes);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public ScopedEventBus createChild() {
+        return global.createChild();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void scopedPostThrpt() {
+        children[next++ % scopes].post(MyBenchmark.TestEvent.EVENT);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void fullBusPostThrpt() {
+        fullBuses[next++ % scopes].post(MyBenchmark.TestEvent.EVENT);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ScopedBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+}
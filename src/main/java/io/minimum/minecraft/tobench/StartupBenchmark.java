@@ -0,0 +1,143 @@
+package io.minimum.minecraft.tobench;
+
+import io.minimum.minecraft.tobench.impls.COWEventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures cold plugin-load cost: registering a set of listeners in a fresh
+ * JVM and posting the first event, with and without generated dispatchers.
+ * Every fork only gets a single shot, so nothing here is ever warmed up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class StartupBenchmark {
+
+    @Param({"true", "false"})
+    private boolean generatedDispatchers;
+
+    private COWEventBus bus;
+    private Object[] listeners;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        EventHandlerScanner.setUseGeneratedDispatchers(generatedDispatchers);
+        bus = new COWEventBus();
+        listeners = new Object[]{
+                new ChatListener(blackhole),
+                new LoginListener(blackhole),
+                new PingListener(blackhole),
+                new MixedListener(blackhole)
+        };
+    }
+
+    @Benchmark
+    public void registerAll() {
+        for (Object listener : listeners) {
+            bus.register(listener);
+        }
+    }
+
+    @Benchmark
+    public void registerAllAndFirstPost() {
+        for (Object listener : listeners) {
+            bus.register(listener);
+        }
+        bus.post(new ChatEvent());
+        bus.post(new LoginEvent());
+        bus.post(new PingEvent());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(StartupBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    public static class ChatEvent {
+    }
+
+    public static class LoginEvent {
+    }
+
+    public static class PingEvent {
+    }
+
+    public static class ChatListener {
+        private final Blackhole blackhole;
+
+        public ChatListener(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @EventHandler
+        public void onChat(ChatEvent event) {
+            blackhole.consume(event);
+        }
+
+        @EventHandler(priority = EventPriority.HIGH)
+        public void onChatLate(ChatEvent event) {
+            blackhole.consume(event);
+        }
+    }
+
+    public static class LoginListener {
+        private final Blackhole blackhole;
+
+        public LoginListener(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @EventHandler(priority = EventPriority.LOWEST)
+        public void onLogin(LoginEvent event) {
+            blackhole.consume(event);
+        }
+    }
+
+    public static class PingListener {
+        private final Blackhole blackhole;
+
+        public PingListener(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @EventHandler
+        public void onPing(PingEvent event) {
+            blackhole.consume(event);
+        }
+    }
+
+    public static class MixedListener {
+        private final Blackhole blackhole;
+
+        public MixedListener(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @EventHandler
+        public void onChat(ChatEvent event) {
+            blackhole.consume(event);
+        }
+
+        @EventHandler
+        public void onLogin(LoginEvent event) {
+            blackhole.consume(event);
+        }
+
+        @EventHandler(priority = EventPriority.HIGHEST)
+        public void onPing(PingEvent event) {
+            blackhole.consume(event);
+        }
+    }
+}
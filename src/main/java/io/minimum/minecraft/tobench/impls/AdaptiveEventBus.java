@@ -0,0 +1,187 @@
+package io.minimum.minecraft.tobench.impls;
+
+import io.minimum.minecraft.tobench.AggregatingExceptionHandler;
+import io.minimum.minecraft.tobench.EventBus;
+import io.minimum.minecraft.tobench.EventExceptionHandler;
+import io.minimum.minecraft.tobench.EventHandlerMethod;
+import io.minimum.minecraft.tobench.EventHandlerScanner;
+import io.minimum.minecraft.tobench.EventPublisher;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * An event bus which picks its strategy from the observed workload.
+ * <p>
+ * While listeners are being registered or unregistered, e.g. during startup or
+ * a plugin reload, it delegates to a {@link CHMEventBus}, where every change
+ * only rebakes the event classes it touches. Once no changes were made for a
+ * while and enough events were posted, it freezes itself into a
+ * {@link FrozenEventBus}. The next change thaws it back into a
+ * {@link CHMEventBus}.
+ * <p>
+ * Every migration builds the new delegate completely before publishing it, so
+ * posts running concurrently finish on the old one and never see a partially
+ * built bus. Listeners are only scanned when registered; migrations reuse the
+ * same {@link EventHandlerMethod} instances, so handlers disabled for failing
+ * stay disabled. The check for freezing is done by posting threads, which only
+ * try to migrate if no other thread is registering at the time.
+ */
+public class AdaptiveEventBus implements EventBus
+{
+
+    private final Map<Object, Map<Class<?>, Map<Byte, List<EventHandlerMethod>>>> listeners = new LinkedHashMap<>();
+    private final Lock lock = new ReentrantLock();
+    private final Logger logger;
+    private final EventExceptionHandler exceptionHandler;
+    private final long quietNanos;
+    private final int postThreshold;
+    private volatile EventPublisher delegate;
+    /**
+     * Guarded by {@link #lock}.
+     */
+    private long lastWriteNanos;
+    /**
+     * Updated racily by posting threads; it only needs to be roughly right.
+     */
+    private int postsSinceWrite;
+
+    public AdaptiveEventBus()
+    {
+        this( null );
+    }
+
+    public AdaptiveEventBus(Logger logger)
+    {
+        this( logger, null );
+    }
+
+    public AdaptiveEventBus(Logger logger, EventExceptionHandler exceptionHandler)
+    {
+        this( logger, exceptionHandler, 500, 10000 );
+    }
+
+    /**
+     * @param quietMillis how long no listeners must have been registered or
+     * unregistered before the bus freezes
+     * @param postThreshold how many events must have been posted since the
+     * last change before the bus freezes
+     */
+    public AdaptiveEventBus(Logger logger, EventExceptionHandler exceptionHandler, long quietMillis, int postThreshold)
+    {
+        this.logger = ( logger == null ) ? Logger.getLogger( Logger.GLOBAL_LOGGER_NAME ) : logger;
+        this.exceptionHandler = ( exceptionHandler == null ) ? new AggregatingExceptionHandler( this.logger ) : exceptionHandler;
+        this.quietNanos = TimeUnit.MILLISECONDS.toNanos( quietMillis );
+        this.postThreshold = postThreshold;
+        this.delegate = new CHMEventBus( this.logger, this.exceptionHandler );
+        this.lastWriteNanos = System.nanoTime();
+    }
+
+    public void post(Object event)
+    {
+        EventPublisher current = delegate;
+        current.post( event );
+
+        if ( !( current instanceof FrozenEventBus ) && ++postsSinceWrite >= postThreshold )
+        {
+            tryFreeze();
+        }
+    }
+
+    public void register(Object listener)
+    {
+        lock.lock();
+        try
+        {
+            CHMEventBus current = writableDelegate();
+            Map<Class<?>, Map<Byte, List<EventHandlerMethod>>> handler = EventHandlerScanner.findHandlers( listener, logger );
+            listeners.put( listener, handler );
+            current.register( listener, handler );
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public void unregister(Object listener)
+    {
+        lock.lock();
+        try
+        {
+            CHMEventBus current = writableDelegate();
+            listeners.remove( listener );
+            current.unregister( listener );
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether the bus currently delegates to a {@link FrozenEventBus}.
+     */
+    public boolean isFrozen()
+    {
+        return delegate instanceof FrozenEventBus;
+    }
+
+    /**
+     * Shouldn't be called without first locking the lock. Records the write
+     * and thaws the bus if it is frozen.
+     */
+    private CHMEventBus writableDelegate()
+    {
+        lastWriteNanos = System.nanoTime();
+        postsSinceWrite = 0;
+
+        EventPublisher current = delegate;
+        if ( current instanceof CHMEventBus )
+        {
+            return (CHMEventBus) current;
+        }
+        CHMEventBus thawed = new CHMEventBus( logger, exceptionHandler );
+        for ( Map.Entry<Object, Map<Class<?>, Map<Byte, List<EventHandlerMethod>>>> e : listeners.entrySet() )
+        {
+            thawed.register( e.getKey(), e.getValue() );
+        }
+        delegate = thawed;
+        return thawed;
+    }
+
+    private void tryFreeze()
+    {
+        if ( !lock.tryLock() )
+        {
+            // Someone is registering right now, so we're not settled anyway.
+            return;
+        }
+        try
+        {
+            if ( delegate instanceof FrozenEventBus )
+            {
+                return;
+            }
+            postsSinceWrite = 0;
+            if ( System.nanoTime() - lastWriteNanos < quietNanos )
+            {
+                return;
+            }
+
+            FrozenEventBus.Builder builder = new FrozenEventBus.Builder();
+            builder.setExceptionHandler( exceptionHandler );
+            for ( Map.Entry<Object, Map<Class<?>, Map<Byte, List<EventHandlerMethod>>>> e : listeners.entrySet() )
+            {
+                builder.register( e.getKey(), e.getValue() );
+            }
+            delegate = builder.build();
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+}
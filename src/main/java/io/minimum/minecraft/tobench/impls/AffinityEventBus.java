@@ -0,0 +1,156 @@
+package io.minimum.minecraft.tobench.impls;
+
+import io.minimum.minecraft.tobench.EventBus;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Wraps another bus, dispatching events on a fixed set of single-threaded
+ * loops. {@link #post(Object, Object)} maps the affinity key, e.g. the
+ * connection, to one loop, so events for the same key are dispatched in
+ * order and always on the same thread, and handlers need no locking for
+ * per-key state. Events for different keys spread across the loops.
+ * <p>
+ * Each loop has a lock-free queue any thread may post to, and drains it in
+ * batches; posting only wakes a loop if it is parked on an empty queue.
+ * <p>
+ * {@link #post(Object)} dispatches on the calling thread, as the wrapped bus
+ * would. Call {@link #close()} to stop the loops once drained; keyed posts
+ * are rejected from then on.
+ */
+public class AffinityEventBus implements EventBus
+{
+
+    private static final int BATCH_SIZE = 256;
+
+    private final EventBus delegate;
+    private final DispatchLoop[] loops;
+    private final Logger logger;
+    private volatile boolean closed;
+
+    public AffinityEventBus(EventBus delegate, int loopCount)
+    {
+        this( delegate, loopCount, null );
+    }
+
+    public AffinityEventBus(EventBus delegate, int loopCount, Logger logger)
+    {
+        this.delegate = delegate;
+        this.logger = ( logger == null ) ? Logger.getLogger( Logger.GLOBAL_LOGGER_NAME ) : logger;
+        this.loops = new DispatchLoop[ loopCount ];
+        for ( int i = 0; i < loopCount; i++ )
+        {
+            loops[i] = new DispatchLoop( "EventBus Dispatch Loop #" + i );
+            loops[i].start();
+        }
+    }
+
+    public void post(Object event)
+    {
+        delegate.post( event );
+    }
+
+    /**
+     * Queues the event on the loop owning the key and returns right away.
+     *
+     * @throws RejectedExecutionException if the bus was closed
+     */
+    public void post(Object event, Object affinityKey)
+    {
+        if ( closed )
+        {
+            throw new RejectedExecutionException( "AffinityEventBus was closed" );
+        }
+        int hash = affinityKey.hashCode();
+        // Spread the high bits, as keys are often identity hashed objects.
+        hash ^= hash >>> 16;
+        loops[( hash & Integer.MAX_VALUE ) % loops.length].offer( event );
+    }
+
+    public void register(Object listener)
+    {
+        delegate.register( listener );
+    }
+
+    public void unregister(Object listener)
+    {
+        delegate.unregister( listener );
+    }
+
+    /**
+     * Stops the loops once they have dispatched everything queued so far.
+     * Later keyed posts are rejected; posts racing with this call may be lost.
+     */
+    public void close()
+    {
+        closed = true;
+        for ( DispatchLoop loop : loops )
+        {
+            loop.running = false;
+            LockSupport.unpark( loop );
+        }
+    }
+
+    private final class DispatchLoop extends Thread
+    {
+
+        private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean parked = new AtomicBoolean();
+        private volatile boolean running = true;
+
+        private DispatchLoop(String name)
+        {
+            super( name );
+            setDaemon( true );
+        }
+
+        private void offer(Object event)
+        {
+            queue.offer( event );
+            if ( parked.get() && parked.compareAndSet( true, false ) )
+            {
+                LockSupport.unpark( this );
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            while ( true )
+            {
+                Object event;
+                for ( int i = 0; i < BATCH_SIZE && ( event = queue.poll() ) != null; i++ )
+                {
+                    try
+                    {
+                        delegate.post( event );
+                    } catch ( Throwable t )
+                    {
+                        logger.log( Level.SEVERE, "Error dispatching event " + event, t );
+                    }
+                }
+                if ( queue.isEmpty() )
+                {
+                    if ( !running )
+                    {
+                        return;
+                    }
+                    // Announce we're parking before checking the queue again, so a
+                    // concurrent offer either sees the flag or gets polled.
+                    parked.set( true );
+                    if ( queue.isEmpty() && running )
+                    {
+                        LockSupport.park( this );
+                    }
+                    parked.set( false );
+                }
+            }
+        }
+    }
+}
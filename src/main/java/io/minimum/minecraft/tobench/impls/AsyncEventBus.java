@@ -0,0 +1,55 @@
+package io.minimum.minecraft.tobench.impls;
+
+import io.minimum.minecraft.tobench.AsyncEvent;
+import io.minimum.minecraft.tobench.EventBus;
+
+/**
+ * Wraps another bus, completing {@link AsyncEvent}s: once the wrapped bus
+ * returns from dispatching one, its completion callback runs as soon as the
+ * intents registered by its handlers have completed. Other events are
+ * passed through as is.
+ * <p>
+ * The wrapped bus must dispatch synchronously, as with {@link PooledEventBus}.
+ */
+public class AsyncEventBus implements EventBus
+{
+
+    private final EventBus delegate;
+
+    public AsyncEventBus(EventBus delegate)
+    {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @throws IllegalStateException if the event is an {@link AsyncEvent}
+     * which was already posted
+     */
+    public void post(Object event)
+    {
+        if ( !( event instanceof AsyncEvent ) )
+        {
+            delegate.post( event );
+            return;
+        }
+        AsyncEvent<?> async = (AsyncEvent<?>) event;
+        async.preCall();
+        try
+        {
+            delegate.post( event );
+        } finally
+        {
+            async.postCall();
+        }
+    }
+
+    public void register(Object listener)
+    {
+        delegate.register( listener );
+    }
+
+    public void unregister(Object listener)
+    {
+        delegate.unregister( listener );
+    }
+}
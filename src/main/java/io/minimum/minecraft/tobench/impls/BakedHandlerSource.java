@@ -0,0 +1,25 @@
+package io.minimum.minecraft.tobench.impls;
+
+import io.minimum.minecraft.tobench.EventExceptionHandler;
+import io.minimum.minecraft.tobench.EventHandlerMethod;
+
+import java.util.logging.Logger;
+
+/**
+ * A bus whose baked handlers can be inherited by {@link ScopedEventBus}
+ * children.
+ */
+interface BakedHandlerSource
+{
+
+    /**
+     * Returns the handlers for the event class in dispatch order, or null if
+     * there are none. The array is shared and must not be modified; a new
+     * array is returned whenever the handlers change.
+     */
+    EventHandlerMethod[] getBakedHandlers(Class<?> eventClass);
+
+    EventExceptionHandler getExceptionHandler();
+
+    Logger getLogger();
+}
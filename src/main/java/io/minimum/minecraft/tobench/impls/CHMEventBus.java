@@ -1,25 +1,29 @@
 package io.minimum.minecraft.tobench.impls;
 
-import io.minimum.minecraft.tobench.EventHandler;
+import io.minimum.minecraft.tobench.AggregatingExceptionHandler;
+import io.minimum.minecraft.tobench.EventBus;
+import io.minimum.minecraft.tobench.EventExceptionHandler;
 import io.minimum.minecraft.tobench.EventHandlerMethod;
+import io.minimum.minecraft.tobench.EventHandlerScanner;
+import io.minimum.minecraft.tobench.jfr.BakeEvent;
+import io.minimum.minecraft.tobench.jfr.DispatchEvent;
+import io.minimum.minecraft.tobench.jfr.RegistrationEvent;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.text.MessageFormat;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class CHMEventBus
+public class CHMEventBus implements EventBus
 {
 
-    private final Map<Class<?>, Map<Byte, Map<Object, Method[]>>> byListenerAndPriority = new HashMap<>();
+    private final Map<Class<?>, Map<Byte, Map<Object, EventHandlerMethod[]>>> byListenerAndPriority = new HashMap<>();
     private final Map<Class<?>, EventHandlerMethod[]> byEventBaked = new ConcurrentHashMap<>(16, 0.75f, 1);
     private final Lock lock = new ReentrantLock();
     private final Logger logger;
+    private final EventExceptionHandler exceptionHandler;
 
     public CHMEventBus()
     {
@@ -27,12 +31,19 @@ public class CHMEventBus
     }
 
     public CHMEventBus(Logger logger)
+    {
+        this( logger, null );
+    }
+
+    public CHMEventBus(Logger logger, EventExceptionHandler exceptionHandler)
     {
         this.logger = ( logger == null ) ? Logger.getLogger( Logger.GLOBAL_LOGGER_NAME ) : logger;
+        this.exceptionHandler = ( exceptionHandler == null ) ? new AggregatingExceptionHandler( this.logger ) : exceptionHandler;
     }
 
     public void post(Object event)
     {
+        DispatchEvent dispatch = DispatchEvent.start();
         EventHandlerMethod[] handlers = byEventBaked.get( event.getClass() );
 
         if ( handlers != null )
@@ -50,70 +61,46 @@ public class CHMEventBus
                     throw new Error( "Method rejected target/argument: " + event, ex );
                 } catch ( InvocationTargetException ex )
                 {
-                    logger.log( Level.WARNING, MessageFormat.format( "Error dispatching event {0} to listener {1}", event, method.getListener() ), ex.getCause() );
+                    exceptionHandler.handleException( event, method, ex.getCause() );
                 }
             }
         }
+        dispatch.finish( event.getClass(), handlers == null ? 0 : handlers.length );
     }
 
-    private Map<Class<?>, Map<Byte, Set<Method>>> findHandlers(Object listener)
+    public void register(Object listener)
     {
-        Map<Class<?>, Map<Byte, Set<Method>>> handler = new HashMap<>();
-        for ( Method m : listener.getClass().getDeclaredMethods() )
-        {
-            EventHandler annotation = m.getAnnotation( EventHandler.class );
-            if ( annotation != null )
-            {
-                Class<?>[] params = m.getParameterTypes();
-                if ( params.length != 1 )
-                {
-                    logger.log( Level.INFO, "Method {0} in class {1} annotated with {2} does not have single argument", new Object[]
-                            {
-                                    m, listener.getClass(), annotation
-                            } );
-                    continue;
-                }
-                Map<Byte, Set<Method>> prioritiesMap = handler.get( params[0] );
-                if ( prioritiesMap == null )
-                {
-                    prioritiesMap = new HashMap<>();
-                    handler.put( params[0], prioritiesMap );
-                }
-                Set<Method> priority = prioritiesMap.get( annotation.priority() );
-                if ( priority == null )
-                {
-                    priority = new HashSet<>();
-                    prioritiesMap.put( annotation.priority(), priority );
-                }
-                priority.add( m );
-            }
-        }
-        return handler;
+        register( listener, EventHandlerScanner.findHandlers( listener, logger ) );
     }
 
-    public void register(Object listener)
+    /**
+     * Registers handlers found by an earlier scan of the listener, keeping the
+     * very same {@link EventHandlerMethod} instances, and with them their
+     * disabled state.
+     */
+    void register(Object listener, Map<Class<?>, Map<Byte, List<EventHandlerMethod>>> handler)
     {
-        Map<Class<?>, Map<Byte, Set<Method>>> handler = findHandlers( listener );
+        RegistrationEvent jfr = RegistrationEvent.start();
         lock.lock();
         try
         {
-            for ( Map.Entry<Class<?>, Map<Byte, Set<Method>>> e : handler.entrySet() )
+            for ( Map.Entry<Class<?>, Map<Byte, List<EventHandlerMethod>>> e : handler.entrySet() )
             {
-                Map<Byte, Map<Object, Method[]>> prioritiesMap = byListenerAndPriority.get( e.getKey() );
+                Map<Byte, Map<Object, EventHandlerMethod[]>> prioritiesMap = byListenerAndPriority.get( e.getKey() );
                 if ( prioritiesMap == null )
                 {
                     prioritiesMap = new HashMap<>();
                     byListenerAndPriority.put( e.getKey(), prioritiesMap );
                 }
-                for ( Map.Entry<Byte, Set<Method>> entry : e.getValue().entrySet() )
+                for ( Map.Entry<Byte, List<EventHandlerMethod>> entry : e.getValue().entrySet() )
                 {
-                    Map<Object, Method[]> currentPriorityMap = prioritiesMap.get( entry.getKey() );
+                    Map<Object, EventHandlerMethod[]> currentPriorityMap = prioritiesMap.get( entry.getKey() );
                     if ( currentPriorityMap == null )
                     {
                         currentPriorityMap = new HashMap<>();
                         prioritiesMap.put( entry.getKey(), currentPriorityMap );
                     }
-                    Method[] baked = new Method[ entry.getValue().size() ];
+                    EventHandlerMethod[] baked = new EventHandlerMethod[ entry.getValue().size() ];
                     currentPriorityMap.put( listener, entry.getValue().toArray( baked ) );
                 }
                 bakeHandlers( e.getKey() );
@@ -122,22 +109,24 @@ public class CHMEventBus
         {
             lock.unlock();
         }
+        jfr.finish( "register", listener, handler.keySet() );
     }
 
     public void unregister(Object listener)
     {
-        Map<Class<?>, Map<Byte, Set<Method>>> handler = findHandlers( listener );
+        RegistrationEvent jfr = RegistrationEvent.start();
+        Map<Class<?>, Map<Byte, List<EventHandlerMethod>>> handler = EventHandlerScanner.findHandlers( listener, logger );
         lock.lock();
         try
         {
-            for ( Map.Entry<Class<?>, Map<Byte, Set<Method>>> e : handler.entrySet() )
+            for ( Map.Entry<Class<?>, Map<Byte, List<EventHandlerMethod>>> e : handler.entrySet() )
             {
-                Map<Byte, Map<Object, Method[]>> prioritiesMap = byListenerAndPriority.get( e.getKey() );
+                Map<Byte, Map<Object, EventHandlerMethod[]>> prioritiesMap = byListenerAndPriority.get( e.getKey() );
                 if ( prioritiesMap != null )
                 {
                     for ( Byte priority : e.getValue().keySet() )
                     {
-                        Map<Object, Method[]> currentPriority = prioritiesMap.get( priority );
+                        Map<Object, EventHandlerMethod[]> currentPriority = prioritiesMap.get( priority );
                         if ( currentPriority != null )
                         {
                             currentPriority.remove( listener );
@@ -158,6 +147,7 @@ public class CHMEventBus
         {
             lock.unlock();
         }
+        jfr.finish( "unregister", listener, handler.keySet() );
     }
 
     /**
@@ -167,7 +157,8 @@ public class CHMEventBus
      */
     private void bakeHandlers(Class<?> eventClass)
     {
-        Map<Byte, Map<Object, Method[]>> handlersByPriority = byListenerAndPriority.get( eventClass );
+        BakeEvent jfr = BakeEvent.start();
+        Map<Byte, Map<Object, EventHandlerMethod[]>> handlersByPriority = byListenerAndPriority.get( eventClass );
         if ( handlersByPriority != null )
         {
             List<EventHandlerMethod> handlersList = new ArrayList<>( handlersByPriority.size() * 2 );
@@ -177,23 +168,21 @@ public class CHMEventBus
             byte value = Byte.MIN_VALUE;
             do
             {
-                Map<Object, Method[]> handlersByListener = handlersByPriority.get( value );
+                Map<Object, EventHandlerMethod[]> handlersByListener = handlersByPriority.get( value );
                 if ( handlersByListener != null )
                 {
-                    for ( Map.Entry<Object, Method[]> listenerHandlers : handlersByListener.entrySet() )
+                    for ( Map.Entry<Object, EventHandlerMethod[]> listenerHandlers : handlersByListener.entrySet() )
                     {
-                        for ( Method method : listenerHandlers.getValue() )
-                        {
-                            EventHandlerMethod ehm = new EventHandlerMethod( listenerHandlers.getKey(), method );
-                            handlersList.add( ehm );
-                        }
+                        Collections.addAll( handlersList, listenerHandlers.getValue() );
                     }
                 }
             } while ( value++ < Byte.MAX_VALUE );
             byEventBaked.put( eventClass, handlersList.toArray( new EventHandlerMethod[ handlersList.size() ] ) );
+            jfr.finish( eventClass, handlersList.size() );
         } else
         {
             byEventBaked.remove(eventClass);
+            jfr.finish( eventClass, 0 );
         }
     }
 }
@@ -1,23 +1,30 @@
 package io.minimum.minecraft.tobench.impls;
 
-import io.minimum.minecraft.tobench.EventHandler;
+import io.minimum.minecraft.tobench.AggregatingExceptionHandler;
+import io.minimum.minecraft.tobench.EventBus;
+import io.minimum.minecraft.tobench.EventExceptionHandler;
 import io.minimum.minecraft.tobench.EventHandlerMethod;
+import io.minimum.minecraft.tobench.EventHandlerScanner;
+import io.minimum.minecraft.tobench.jfr.BakeEvent;
+import io.minimum.minecraft.tobench.jfr.DispatchEvent;
+import io.minimum.minecraft.tobench.jfr.RegistrationEvent;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class COWEventBus
+public class COWEventBus implements EventBus, BakedHandlerSource
 {
 
-    private final Map<Class<?>, Map<Byte, Map<Object, Method[]>>> byListenerAndPriority = new HashMap<>();
+    private final Map<Class<?>, Map<Byte, Map<Object, EventHandlerMethod[]>>> byListenerAndPriority = new HashMap<>();
     private volatile Map<Class<?>, EventHandlerMethod[]> byEventBaked = Collections.emptyMap();
+    private final Map<Class<?>, ParallelSettings> parallelSettings = new HashMap<>();
+    private volatile Map<Class<?>, ParallelTiers> byEventParallel = Collections.emptyMap();
     private final Logger logger;
+    private final EventExceptionHandler exceptionHandler;
 
     public COWEventBus()
     {
@@ -25,12 +32,31 @@ public class COWEventBus
     }
 
     public COWEventBus(Logger logger)
+    {
+        this( logger, null );
+    }
+
+    public COWEventBus(Logger logger, EventExceptionHandler exceptionHandler)
     {
         this.logger = ( logger == null ) ? Logger.getLogger( Logger.GLOBAL_LOGGER_NAME ) : logger;
+        this.exceptionHandler = ( exceptionHandler == null ) ? new AggregatingExceptionHandler( this.logger ) : exceptionHandler;
     }
 
     public void post(Object event)
     {
+        DispatchEvent dispatch = DispatchEvent.start();
+        Map<Class<?>, ParallelTiers> parallel = byEventParallel;
+        if ( !parallel.isEmpty() )
+        {
+            ParallelTiers tiers = parallel.get( event.getClass() );
+            if ( tiers != null )
+            {
+                tiers.post( event, exceptionHandler );
+                dispatch.finish( event.getClass(), tiers.size() );
+                return;
+            }
+        }
+
         EventHandlerMethod[] handlers = byEventBaked.get( event.getClass() );
 
         if ( handlers != null )
@@ -48,84 +74,53 @@ public class COWEventBus
                     throw new Error( "Method rejected target/argument: " + event, ex );
                 } catch ( InvocationTargetException ex )
                 {
-                    logger.log( Level.WARNING, MessageFormat.format( "Error dispatching event {0} to listener {1}", event, method.getListener() ), ex.getCause() );
+                    exceptionHandler.handleException( event, method, ex.getCause() );
                 }
             }
         }
-    }
-
-    private Map<Class<?>, Map<Byte, Set<Method>>> findHandlers(Object listener)
-    {
-        Map<Class<?>, Map<Byte, Set<Method>>> handler = new HashMap<>();
-        for ( Method m : listener.getClass().getDeclaredMethods() )
-        {
-            EventHandler annotation = m.getAnnotation( EventHandler.class );
-            if ( annotation != null )
-            {
-                Class<?>[] params = m.getParameterTypes();
-                if ( params.length != 1 )
-                {
-                    logger.log( Level.INFO, "Method {0} in class {1} annotated with {2} does not have single argument", new Object[]
-                            {
-                                    m, listener.getClass(), annotation
-                            } );
-                    continue;
-                }
-                Map<Byte, Set<Method>> prioritiesMap = handler.get( params[0] );
-                if ( prioritiesMap == null )
-                {
-                    prioritiesMap = new HashMap<>();
-                    handler.put( params[0], prioritiesMap );
-                }
-                Set<Method> priority = prioritiesMap.get( annotation.priority() );
-                if ( priority == null )
-                {
-                    priority = new HashSet<>();
-                    prioritiesMap.put( annotation.priority(), priority );
-                }
-                priority.add( m );
-            }
-        }
-        return handler;
+        dispatch.finish( event.getClass(), handlers == null ? 0 : handlers.length );
     }
 
     public void register(Object listener)
     {
-        Map<Class<?>, Map<Byte, Set<Method>>> handler = findHandlers( listener );
-        for ( Map.Entry<Class<?>, Map<Byte, Set<Method>>> e : handler.entrySet() )
+        RegistrationEvent jfr = RegistrationEvent.start();
+        Map<Class<?>, Map<Byte, List<EventHandlerMethod>>> handler = EventHandlerScanner.findHandlers( listener, logger );
+        for ( Map.Entry<Class<?>, Map<Byte, List<EventHandlerMethod>>> e : handler.entrySet() )
         {
-            Map<Byte, Map<Object, Method[]>> prioritiesMap = byListenerAndPriority.get( e.getKey() );
+            Map<Byte, Map<Object, EventHandlerMethod[]>> prioritiesMap = byListenerAndPriority.get( e.getKey() );
             if ( prioritiesMap == null )
             {
                 prioritiesMap = new HashMap<>();
                 byListenerAndPriority.put( e.getKey(), prioritiesMap );
             }
-            for ( Map.Entry<Byte, Set<Method>> entry : e.getValue().entrySet() )
+            for ( Map.Entry<Byte, List<EventHandlerMethod>> entry : e.getValue().entrySet() )
             {
-                Map<Object, Method[]> currentPriorityMap = prioritiesMap.get( entry.getKey() );
+                Map<Object, EventHandlerMethod[]> currentPriorityMap = prioritiesMap.get( entry.getKey() );
                 if ( currentPriorityMap == null )
                 {
                     currentPriorityMap = new HashMap<>();
                     prioritiesMap.put( entry.getKey(), currentPriorityMap );
                 }
-                Method[] baked = new Method[ entry.getValue().size() ];
+                EventHandlerMethod[] baked = new EventHandlerMethod[ entry.getValue().size() ];
                 currentPriorityMap.put( listener, entry.getValue().toArray( baked ) );
             }
             bakeHandlers( e.getKey() );
         }
+        jfr.finish( "register", listener, handler.keySet() );
     }
 
     public void unregister(Object listener)
     {
-        Map<Class<?>, Map<Byte, Set<Method>>> handler = findHandlers( listener );
-        for ( Map.Entry<Class<?>, Map<Byte, Set<Method>>> e : handler.entrySet() )
+        RegistrationEvent jfr = RegistrationEvent.start();
+        Map<Class<?>, Map<Byte, List<EventHandlerMethod>>> handler = EventHandlerScanner.findHandlers( listener, logger );
+        for ( Map.Entry<Class<?>, Map<Byte, List<EventHandlerMethod>>> e : handler.entrySet() )
         {
-            Map<Byte, Map<Object, Method[]>> prioritiesMap = byListenerAndPriority.get( e.getKey() );
+            Map<Byte, Map<Object, EventHandlerMethod[]>> prioritiesMap = byListenerAndPriority.get( e.getKey() );
             if ( prioritiesMap != null )
             {
                 for ( Byte priority : e.getValue().keySet() )
                 {
-                    Map<Object, Method[]> currentPriority = prioritiesMap.get( priority );
+                    Map<Object, EventHandlerMethod[]> currentPriority = prioritiesMap.get( priority );
                     if ( currentPriority != null )
                     {
                         currentPriority.remove( listener );
@@ -142,6 +137,54 @@ public class COWEventBus
             }
             bakeHandlers( e.getKey() );
         }
+        jfr.finish( "unregister", listener, handler.keySet() );
+    }
+
+    /**
+     * Creates a child bus for a narrower scope, which inherits the handlers of
+     * this bus. See {@link ScopedEventBus}.
+     */
+    public ScopedEventBus createChild()
+    {
+        return new ScopedEventBus( this );
+    }
+
+    @Override
+    public EventHandlerMethod[] getBakedHandlers(Class<?> eventClass)
+    {
+        return byEventBaked.get( eventClass );
+    }
+
+    @Override
+    public EventExceptionHandler getExceptionHandler()
+    {
+        return exceptionHandler;
+    }
+
+    @Override
+    public Logger getLogger()
+    {
+        return logger;
+    }
+
+    /**
+     * Opts the event class into parallel dispatch: handlers sharing a priority
+     * run concurrently on the pool, once a priority tier has been observed to
+     * take at least {@code minWorkNanos} in total. Only worth it for events
+     * with several slow, independent handlers per priority.
+     */
+    public void enableParallelDispatch(Class<?> eventClass, ForkJoinPool pool, long minWorkNanos)
+    {
+        parallelSettings.put( eventClass, new ParallelSettings( pool, minWorkNanos ) );
+        bakeHandlers( eventClass );
+    }
+
+    public void disableParallelDispatch(Class<?> eventClass)
+    {
+        if ( parallelSettings.remove( eventClass ) != null )
+        {
+            bakeHandlers( eventClass );
+        }
     }
 
     /**
@@ -151,37 +194,73 @@ public class COWEventBus
      */
     private void bakeHandlers(Class<?> eventClass)
     {
+        BakeEvent jfr = BakeEvent.start();
         Map<Class<?>, EventHandlerMethod[]> baked = new HashMap<>( byEventBaked );
+        ParallelTiers tiers = null;
+        int handlerCount = 0;
 
-        Map<Byte, Map<Object, Method[]>> handlersByPriority = byListenerAndPriority.get( eventClass );
+        Map<Byte, Map<Object, EventHandlerMethod[]>> handlersByPriority = byListenerAndPriority.get( eventClass );
         if ( handlersByPriority != null )
         {
             List<EventHandlerMethod> handlersList = new ArrayList<>( handlersByPriority.size() * 2 );
+            int[] tierEnds = new int[ handlersByPriority.size() ];
+            int tier = 0;
 
             // Either I'm really tired, or the only way we can iterate between Byte.MIN_VALUE and Byte.MAX_VALUE inclusively,
             // with only a byte on the stack is by using a do {} while() format loop.
             byte value = Byte.MIN_VALUE;
             do
             {
-                Map<Object, Method[]> handlersByListener = handlersByPriority.get( value );
+                Map<Object, EventHandlerMethod[]> handlersByListener = handlersByPriority.get( value );
                 if ( handlersByListener != null )
                 {
-                    for ( Map.Entry<Object, Method[]> listenerHandlers : handlersByListener.entrySet() )
+                    for ( Map.Entry<Object, EventHandlerMethod[]> listenerHandlers : handlersByListener.entrySet() )
                     {
-                        for ( Method method : listenerHandlers.getValue() )
-                        {
-                            EventHandlerMethod ehm = new EventHandlerMethod( listenerHandlers.getKey(), method );
-                            handlersList.add( ehm );
-                        }
+                        Collections.addAll( handlersList, listenerHandlers.getValue() );
                     }
+                    tierEnds[tier++] = handlersList.size();
                 }
             } while ( value++ < Byte.MAX_VALUE );
-            baked.put( eventClass, handlersList.toArray( new EventHandlerMethod[ handlersList.size() ] ) );
+            EventHandlerMethod[] handlers = handlersList.toArray( new EventHandlerMethod[ handlersList.size() ] );
+            baked.put( eventClass, handlers );
+            handlerCount = handlers.length;
+
+            ParallelSettings settings = parallelSettings.get( eventClass );
+            if ( settings != null )
+            {
+                tiers = new ParallelTiers( handlers, tierEnds, settings.pool, settings.minWorkNanos );
+            }
         } else
         {
             baked.put( eventClass, null );
         }
 
         byEventBaked = baked;
+        if ( tiers != null || byEventParallel.containsKey( eventClass ) )
+        {
+            Map<Class<?>, ParallelTiers> parallel = new HashMap<>( byEventParallel );
+            if ( tiers != null )
+            {
+                parallel.put( eventClass, tiers );
+            } else
+            {
+                parallel.remove( eventClass );
+            }
+            byEventParallel = parallel;
+        }
+        jfr.finish( eventClass, handlerCount );
+    }
+
+    private static final class ParallelSettings
+    {
+
+        private final ForkJoinPool pool;
+        private final long minWorkNanos;
+
+        private ParallelSettings(ForkJoinPool pool, long minWorkNanos)
+        {
+            this.pool = pool;
+            this.minWorkNanos = minWorkNanos;
+        }
     }
 }
@@ -0,0 +1,150 @@
+package io.minimum.minecraft.tobench.impls;
+
+import io.minimum.minecraft.tobench.Coalescable;
+import io.minimum.minecraft.tobench.EventBus;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps another bus, coalescing {@link Coalescable} events.
+ * <p>
+ * Coalescable events are not dispatched when posted; they are parked in a
+ * concurrent map by class and key, replacing any earlier event with the same
+ * key, and only the survivors are dispatched on {@link #flush()}. Flushing is
+ * either driven by the caller, e.g. once per tick, or by a background thread
+ * at a fixed window. All other events are dispatched immediately, so
+ * coalesced events may be seen after events posted later.
+ */
+public class CoalescingEventBus implements EventBus
+{
+
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor( new ThreadFactory()
+    {
+        @Override
+        public Thread newThread(Runnable r)
+        {
+            Thread thread = new Thread( r, "EventBus Coalescing Flusher" );
+            thread.setDaemon( true );
+            return thread;
+        }
+    } );
+
+    private final ConcurrentMap<CoalescingKey, Object> pending = new ConcurrentHashMap<>();
+    private final EventBus delegate;
+    private final ScheduledFuture<?> flushTask;
+
+    /**
+     * Creates a bus which only dispatches coalesced events when
+     * {@link #flush()} is called.
+     */
+    public CoalescingEventBus(EventBus delegate)
+    {
+        this.delegate = delegate;
+        this.flushTask = null;
+    }
+
+    /**
+     * Creates a bus which flushes coalesced events from a background thread
+     * every {@code windowMillis}. Call {@link #close()} to stop it.
+     */
+    public CoalescingEventBus(EventBus delegate, long windowMillis)
+    {
+        this.delegate = delegate;
+        this.flushTask = FLUSHER.scheduleAtFixedRate( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                flush();
+            }
+        }, windowMillis, windowMillis, TimeUnit.MILLISECONDS );
+    }
+
+    public void post(Object event)
+    {
+        if ( event instanceof Coalescable )
+        {
+            pending.put( new CoalescingKey( event.getClass(), ( (Coalescable) event ).getCoalescingKey() ), event );
+        } else
+        {
+            delegate.post( event );
+        }
+    }
+
+    public void register(Object listener)
+    {
+        delegate.register( listener );
+    }
+
+    public void unregister(Object listener)
+    {
+        delegate.unregister( listener );
+    }
+
+    /**
+     * Dispatches the latest pending event for every key on the calling thread.
+     * Events posted while flushing are either dispatched by this flush or left
+     * for the next one, but never lost.
+     */
+    public void flush()
+    {
+        for ( Iterator<Map.Entry<CoalescingKey, Object>> it = pending.entrySet().iterator(); it.hasNext(); )
+        {
+            Object event = pending.remove( it.next().getKey() );
+            if ( event != null )
+            {
+                delegate.post( event );
+            }
+        }
+    }
+
+    /**
+     * Stops the background flushes, if any, and dispatches what is left.
+     */
+    public void close()
+    {
+        if ( flushTask != null )
+        {
+            flushTask.cancel( false );
+        }
+        flush();
+    }
+
+    private static final class CoalescingKey
+    {
+
+        private final Class<?> eventClass;
+        private final Object key;
+
+        private CoalescingKey(Class<?> eventClass, Object key)
+        {
+            this.eventClass = eventClass;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if ( !( o instanceof CoalescingKey ) )
+            {
+                return false;
+            }
+            CoalescingKey other = (CoalescingKey) o;
+            return eventClass == other.eventClass && ( key == null ? other.key == null : key.equals( other.key ) );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * eventClass.hashCode() + ( key == null ? 0 : key.hashCode() );
+        }
+    }
+}
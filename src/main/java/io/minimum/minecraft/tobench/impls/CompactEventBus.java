@@ -0,0 +1,378 @@
+package io.minimum.minecraft.tobench.impls;
+
+import io.minimum.minecraft.tobench.AggregatingExceptionHandler;
+import io.minimum.minecraft.tobench.AsyncEvent;
+import io.minimum.minecraft.tobench.EventBus;
+import io.minimum.minecraft.tobench.EventExceptionHandler;
+import io.minimum.minecraft.tobench.EventHandlerMethod;
+import io.minimum.minecraft.tobench.EventHandlerScanner;
+import io.minimum.minecraft.tobench.ListenerDispatcher;
+import io.minimum.minecraft.tobench.jfr.BakeEvent;
+import io.minimum.minecraft.tobench.jfr.DispatchEvent;
+import io.minimum.minecraft.tobench.jfr.HandlerEvent;
+import io.minimum.minecraft.tobench.jfr.RegistrationEvent;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * A copy on write bus for very large numbers of registrations, e.g. one
+ * listener per player. Rather than an {@link EventHandlerMethod} per handler
+ * and nested maps per event class and priority, the handlers of an event
+ * class are kept in parallel arrays of listeners, invokers (the generated
+ * {@link ListenerDispatcher} or the {@link Method}), dispatcher indexes and
+ * primitive priorities, sorted by priority. Listeners are mapped to their
+ * event classes by a {@link ListenerIndex} for unregistering. As on the other
+ * buses, listeners are matched by {@code equals}.
+ * <p>
+ * Registering handlers whose priority isn't lower than any registered one
+ * appends to the arrays in place, without copying. Other changes copy the
+ * arrays of the event class.
+ * <p>
+ * An {@link EventHandlerMethod} is only created for a handler once it
+ * throws, and then replaces its invoker, so failures are counted and
+ * disabled handlers skipped as on the other buses.
+ */
+public class CompactEventBus implements EventBus
+{
+
+    private static final Slots EMPTY = new Slots( new Object[ 0 ], new Object[ 0 ], new int[ 0 ], new byte[ 0 ], 0 );
+
+    private volatile Map<Class<?>, Slots> byEvent = Collections.emptyMap();
+    private final ListenerIndex<ListenerClass> index = new ListenerIndex<>();
+    /**
+     * Registered listeners of the same class share one array of their event
+     * classes. Entries are dropped with the last listener of their class, so
+     * unloaded plugins' classes aren't kept alive.
+     */
+    private final Map<Class<?>, ListenerClass> listenerClasses = new HashMap<>();
+    private final Lock lock = new ReentrantLock();
+    private final Logger logger;
+    private final EventExceptionHandler exceptionHandler;
+
+    public CompactEventBus()
+    {
+        this( null );
+    }
+
+    public CompactEventBus(Logger logger)
+    {
+        this( logger, null );
+    }
+
+    public CompactEventBus(Logger logger, EventExceptionHandler exceptionHandler)
+    {
+        this.logger = ( logger == null ) ? Logger.getLogger( Logger.GLOBAL_LOGGER_NAME ) : logger;
+        this.exceptionHandler = ( exceptionHandler == null ) ? new AggregatingExceptionHandler( this.logger ) : exceptionHandler;
+    }
+
+    public void post(Object event)
+    {
+        DispatchEvent dispatch = DispatchEvent.start();
+        Slots slots = byEvent.get( event.getClass() );
+
+        if ( slots != null )
+        {
+            for ( int i = 0; i < slots.size; i++ )
+            {
+                Object listener = slots.listeners[i];
+                Object invoker = slots.invokers[i];
+                try
+                {
+                    if ( invoker instanceof EventHandlerMethod )
+                    {
+                        ( (EventHandlerMethod) invoker ).invoke( event );
+                    } else
+                    {
+                        invoke( event, listener, invoker, slots.handlers[i] );
+                    }
+                } catch ( IllegalAccessException ex )
+                {
+                    throw new Error( "Method became inaccessible: " + event, ex );
+                } catch ( IllegalArgumentException ex )
+                {
+                    throw new Error( "Method rejected target/argument: " + event, ex );
+                } catch ( InvocationTargetException ex )
+                {
+                    exceptionHandler.handleException( event, slots.materialize( i ), ex.getCause() );
+                }
+            }
+        }
+        dispatch.finish( event.getClass(), slots == null ? 0 : slots.size );
+    }
+
+    private static void invoke(Object event, Object listener, Object invoker, int handler) throws IllegalAccessException, InvocationTargetException
+    {
+        HandlerEvent jfr = HandlerEvent.start();
+        Object result;
+        try
+        {
+            if ( invoker instanceof ListenerDispatcher )
+            {
+                try
+                {
+                    result = ( (ListenerDispatcher) invoker ).invoke( handler, listener, event );
+                } catch ( Throwable t )
+                {
+                    throw new InvocationTargetException( t );
+                }
+            } else
+            {
+                result = ( (Method) invoker ).invoke( listener, event );
+            }
+        } finally
+        {
+            jfr.finish( event, listener, invoker, handler );
+        }
+        if ( result instanceof CompletionStage && event instanceof AsyncEvent )
+        {
+            ( (AsyncEvent<?>) event ).registerIntent( (CompletionStage<?>) result );
+        }
+    }
+
+    /**
+     * Registers the listener's handlers. Registering a listener again replaces
+     * its handlers.
+     */
+    public void register(Object listener)
+    {
+        RegistrationEvent jfr = RegistrationEvent.start();
+        Map<Class<?>, Map<Byte, List<EventHandlerMethod>>> handler = EventHandlerScanner.findHandlers( listener, logger );
+        lock.lock();
+        try
+        {
+            Map<Class<?>, Slots> baked = new HashMap<>( byEvent );
+            ListenerClass previous = index.remove( listener );
+            if ( previous != null )
+            {
+                remove( baked, previous, listener );
+            }
+            if ( !handler.isEmpty() )
+            {
+                for ( Map.Entry<Class<?>, Map<Byte, List<EventHandlerMethod>>> e : handler.entrySet() )
+                {
+                    add( baked, e.getKey(), e.getValue() );
+                }
+                ListenerClass listenerClass = listenerClasses.get( listener.getClass() );
+                if ( listenerClass == null )
+                {
+                    listenerClass = new ListenerClass( listener.getClass(), handler.keySet().toArray( new Class<?>[ handler.size() ] ) );
+                    listenerClasses.put( listener.getClass(), listenerClass );
+                }
+                listenerClass.listeners++;
+                index.put( listener, listenerClass );
+            }
+            byEvent = baked;
+        } finally
+        {
+            lock.unlock();
+        }
+        jfr.finish( "register", listener, handler.keySet() );
+    }
+
+    public void unregister(Object listener)
+    {
+        RegistrationEvent jfr = RegistrationEvent.start();
+        ListenerClass listenerClass;
+        lock.lock();
+        try
+        {
+            listenerClass = index.remove( listener );
+            if ( listenerClass != null )
+            {
+                Map<Class<?>, Slots> baked = new HashMap<>( byEvent );
+                remove( baked, listenerClass, listener );
+                byEvent = baked;
+            }
+        } finally
+        {
+            lock.unlock();
+        }
+        jfr.finish( "unregister", listener, listenerClass == null ? Collections.<Class<?>>emptySet() : Arrays.asList( listenerClass.eventClasses ) );
+    }
+
+    /**
+     * Removes the handlers of a listener just taken out of the index.
+     */
+    private void remove(Map<Class<?>, Slots> baked, ListenerClass listenerClass, Object listener)
+    {
+        for ( Class<?> eventClass : listenerClass.eventClasses )
+        {
+            remove( baked, eventClass, listener );
+        }
+        if ( --listenerClass.listeners == 0 )
+        {
+            listenerClasses.remove( listenerClass.type );
+        }
+    }
+
+    /**
+     * Adds the handlers of one listener for the event class, after existing
+     * handlers of the same priority.
+     */
+    private static void add(Map<Class<?>, Slots> baked, Class<?> eventClass, Map<Byte, List<EventHandlerMethod>> handlersByPriority)
+    {
+        BakeEvent jfr = BakeEvent.start();
+        List<EventHandlerMethod> added = new ArrayList<>();
+        for ( List<EventHandlerMethod> methods : handlersByPriority.values() )
+        {
+            added.addAll( methods );
+        }
+        Collections.sort( added, new Comparator<EventHandlerMethod>()
+        {
+            @Override
+            public int compare(EventHandlerMethod o1, EventHandlerMethod o2)
+            {
+                return Byte.compare( o1.getPriority(), o2.getPriority() );
+            }
+        } );
+
+        Slots current = baked.get( eventClass );
+        if ( current == null )
+        {
+            current = EMPTY;
+        }
+        int size = current.size + added.size();
+        Slots slots;
+        if ( size <= current.listeners.length && ( current.size == 0 || current.priorities[current.size - 1] <= added.get( 0 ).getPriority() ) )
+        {
+            // Readers of the current snapshot never look past its size, so appending is safe.
+            slots = new Slots( current.listeners, current.invokers, current.handlers, current.priorities, size );
+            for ( int i = 0; i < added.size(); i++ )
+            {
+                slots.set( current.size + i, added.get( i ) );
+            }
+        } else
+        {
+            int capacity = size <= current.listeners.length ? current.listeners.length : size + ( size >> 1 );
+            slots = new Slots( new Object[ capacity ], new Object[ capacity ], new int[ capacity ], new byte[ capacity ], size );
+            int i = 0, j = 0, k = 0;
+            while ( i < current.size && j < added.size() )
+            {
+                if ( current.priorities[i] <= added.get( j ).getPriority() )
+                {
+                    slots.copy( k++, current, i++ );
+                } else
+                {
+                    slots.set( k++, added.get( j++ ) );
+                }
+            }
+            while ( i < current.size )
+            {
+                slots.copy( k++, current, i++ );
+            }
+            while ( j < added.size() )
+            {
+                slots.set( k++, added.get( j++ ) );
+            }
+        }
+        baked.put( eventClass, slots );
+        jfr.finish( eventClass, size );
+    }
+
+    private static void remove(Map<Class<?>, Slots> baked, Class<?> eventClass, Object listener)
+    {
+        BakeEvent jfr = BakeEvent.start();
+        Slots current = baked.get( eventClass );
+        int remaining = 0;
+        for ( int i = 0; i < current.size; i++ )
+        {
+            if ( !listener.equals( current.listeners[i] ) )
+            {
+                remaining++;
+            }
+        }
+        if ( remaining == 0 )
+        {
+            baked.remove( eventClass );
+        } else
+        {
+            Slots slots = new Slots( new Object[ remaining ], new Object[ remaining ], new int[ remaining ], new byte[ remaining ], remaining );
+            int k = 0;
+            for ( int i = 0; i < current.size; i++ )
+            {
+                if ( !listener.equals( current.listeners[i] ) )
+                {
+                    slots.copy( k++, current, i );
+                }
+            }
+            baked.put( eventClass, slots );
+        }
+        jfr.finish( eventClass, remaining );
+    }
+
+    private static final class ListenerClass
+    {
+
+        private final Class<?> type;
+        private final Class<?>[] eventClasses;
+        // Registered listeners of this class, guarded by the lock.
+        private int listeners;
+
+        private ListenerClass(Class<?> type, Class<?>[] eventClasses)
+        {
+            this.type = type;
+            this.eventClasses = eventClasses;
+        }
+    }
+
+    private static final class Slots
+    {
+
+        private final Object[] listeners;
+        private final Object[] invokers;
+        private final int[] handlers;
+        private final byte[] priorities;
+        private final int size;
+
+        private Slots(Object[] listeners, Object[] invokers, int[] handlers, byte[] priorities, int size)
+        {
+            this.listeners = listeners;
+            this.invokers = invokers;
+            this.handlers = handlers;
+            this.priorities = priorities;
+            this.size = size;
+        }
+
+        private void set(int i, EventHandlerMethod method)
+        {
+            listeners[i] = method.getListener();
+            invokers[i] = method.getDispatcher() != null ? method.getDispatcher() : method.getMethod();
+            handlers[i] = method.getHandlerIndex();
+            priorities[i] = method.getPriority();
+        }
+
+        private void copy(int i, Slots from, int j)
+        {
+            listeners[i] = from.listeners[j];
+            invokers[i] = from.invokers[j];
+            handlers[i] = from.handlers[j];
+            priorities[i] = from.priorities[j];
+        }
+
+        /**
+         * Returns the {@link EventHandlerMethod} for the slot, creating it and
+         * storing it as the invoker first if needed. The store is racy and
+         * not published with the snapshot: a concurrent failure may create a
+         * second instance, which only splits the failure counts.
+         */
+        private EventHandlerMethod materialize(int i)
+        {
+            Object invoker = invokers[i];
+            if ( invoker instanceof EventHandlerMethod )
+            {
+                return (EventHandlerMethod) invoker;
+            }
+            EventHandlerMethod method = invoker instanceof ListenerDispatcher
+                    ? new EventHandlerMethod( listeners[i], (ListenerDispatcher) invoker, handlers[i] )
+                    : new EventHandlerMethod( listeners[i], (Method) invoker, priorities[i] );
+            invokers[i] = method;
+            return method;
+        }
+    }
+}
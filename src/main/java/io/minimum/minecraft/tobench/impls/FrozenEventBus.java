@@ -2,29 +2,36 @@ package io.minimum.minecraft.tobench.impls;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import io.minimum.minecraft.tobench.EventHandler;
+import io.minimum.minecraft.tobench.AggregatingExceptionHandler;
+import io.minimum.minecraft.tobench.EventExceptionHandler;
 import io.minimum.minecraft.tobench.EventHandlerMethod;
+import io.minimum.minecraft.tobench.EventHandlerScanner;
+import io.minimum.minecraft.tobench.EventPublisher;
+import io.minimum.minecraft.tobench.jfr.BakeEvent;
+import io.minimum.minecraft.tobench.jfr.DispatchEvent;
+import io.minimum.minecraft.tobench.jfr.RegistrationEvent;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.text.MessageFormat;
 import java.util.*;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.logging.Level;
 
 /**
- * A special event bus that is "frozen" once it's built.
+ * A special event bus that is "frozen" once it's built. Handlers can only be
+ * registered through a {@link Builder}.
  */
-public class FrozenEventBus {
+public class FrozenEventBus implements EventPublisher {
 
     private final Map<Class<?>, List<EventHandlerMethod>> baked;
+    private final EventExceptionHandler exceptionHandler;
 
-    private FrozenEventBus(Map<Class<?>, List<EventHandlerMethod>> baked) {
+    private FrozenEventBus(Map<Class<?>, List<EventHandlerMethod>> baked, EventExceptionHandler exceptionHandler) {
         this.baked = baked;
+        this.exceptionHandler = exceptionHandler;
     }
 
     public void post(Object event) {
+        DispatchEvent dispatch = DispatchEvent.start();
         List<EventHandlerMethod> handlers = baked.get( event.getClass() );
 
         if ( handlers != null )
@@ -42,89 +49,114 @@ public class FrozenEventBus {
                     throw new Error( "Method rejected target/argument: " + event, ex );
                 } catch ( InvocationTargetException ex )
                 {
-                    //logger.log( Level.WARNING, MessageFormat.format( "Error dispatching event {0} to listener {1}", event, method.getListener() ), ex.getCause() );
+                    exceptionHandler.handleException( event, method, ex.getCause() );
                 }
             }
         }
+        dispatch.finish( event.getClass(), handlers == null ? 0 : handlers.size() );
     }
 
     public static class Builder {
-        private final Map<Class<?>, Map<Byte, Map<Object, Method[]>>> byListenerAndPriority = new HashMap<>();
-        private final Map<Class<?>, EventHandlerMethod[]> byEventBaked = new HashMap<>();
+        private final Map<Class<?>, Map<Byte, Map<Object, EventHandlerMethod[]>>> byListenerAndPriority = new HashMap<>();
+        private final Map<Class<?>, List<EventHandlerMethod>> byEventBaked = new HashMap<>();
+        private final Set<Class<?>> dirty = new HashSet<>();
+        private EventExceptionHandler exceptionHandler;
 
+        public void setExceptionHandler(EventExceptionHandler exceptionHandler) {
+            this.exceptionHandler = exceptionHandler;
+        }
+
+        /**
+         * Builds a bus from the listeners registered so far. The builder can be
+         * modified and built again afterwards; only event classes touched since
+         * the last build are rebaked.
+         */
         public FrozenEventBus build() {
-            ImmutableMap.Builder<Class<?>, List<EventHandlerMethod>> builder = ImmutableMap.builder();
-            for (Class<?> aClass : byListenerAndPriority.keySet()) {
+            for (Class<?> aClass : dirty) {
                 bakeHandlers( aClass );
             }
-            for (Map.Entry<Class<?>, EventHandlerMethod[]> entry : byEventBaked.entrySet()) {
-                builder.put(entry.getKey(), ImmutableList.copyOf(entry.getValue()));
+            dirty.clear();
+            if (exceptionHandler == null) {
+                exceptionHandler = new AggregatingExceptionHandler(null);
             }
-            return new FrozenEventBus(builder.build());
+            return new FrozenEventBus(ImmutableMap.copyOf(byEventBaked), exceptionHandler);
         }
 
-        private Map<Class<?>, Map<Byte, Set<Method>>> findHandlers(Object listener)
+        public void register(Object listener)
         {
-            Map<Class<?>, Map<Byte, Set<Method>>> handler = new HashMap<>();
-            for ( Method m : listener.getClass().getDeclaredMethods() )
-            {
-                EventHandler annotation = m.getAnnotation( EventHandler.class );
-                if ( annotation != null )
-                {
-                    Class<?>[] params = m.getParameterTypes();
-                    if ( params.length != 1 )
-                    {
-                        continue;
-                    }
-                    Map<Byte, Set<Method>> prioritiesMap = handler.get( params[0] );
-                    if ( prioritiesMap == null )
-                    {
-                        prioritiesMap = new HashMap<>();
-                        handler.put( params[0], prioritiesMap );
-                    }
-                    Set<Method> priority = prioritiesMap.get( annotation.priority() );
-                    if ( priority == null )
-                    {
-                        priority = new HashSet<>();
-                        prioritiesMap.put( annotation.priority(), priority );
-                    }
-                    priority.add( m );
-                }
-            }
-            return handler;
+            register( listener, EventHandlerScanner.findHandlers( listener, null ) );
         }
 
-        public void register(Object listener)
+        /**
+         * Registers handlers found by an earlier scan of the listener, keeping
+         * the very same {@link EventHandlerMethod} instances, and with them
+         * their disabled state.
+         */
+        void register(Object listener, Map<Class<?>, Map<Byte, List<EventHandlerMethod>>> handler)
         {
-            Map<Class<?>, Map<Byte, Set<Method>>> handler = findHandlers( listener );
-            for ( Map.Entry<Class<?>, Map<Byte, Set<Method>>> e : handler.entrySet() )
+            RegistrationEvent jfr = RegistrationEvent.start();
+            for ( Map.Entry<Class<?>, Map<Byte, List<EventHandlerMethod>>> e : handler.entrySet() )
             {
-                Map<Byte, Map<Object, Method[]>> prioritiesMap = byListenerAndPriority.get( e.getKey() );
+                Map<Byte, Map<Object, EventHandlerMethod[]>> prioritiesMap = byListenerAndPriority.get( e.getKey() );
                 if ( prioritiesMap == null )
                 {
                     prioritiesMap = new HashMap<>();
                     byListenerAndPriority.put( e.getKey(), prioritiesMap );
                 }
-                for ( Map.Entry<Byte, Set<Method>> entry : e.getValue().entrySet() )
+                for ( Map.Entry<Byte, List<EventHandlerMethod>> entry : e.getValue().entrySet() )
                 {
-                    Map<Object, Method[]> currentPriorityMap = prioritiesMap.get( entry.getKey() );
+                    Map<Object, EventHandlerMethod[]> currentPriorityMap = prioritiesMap.get( entry.getKey() );
                     if ( currentPriorityMap == null )
                     {
                         currentPriorityMap = new HashMap<>();
                         prioritiesMap.put( entry.getKey(), currentPriorityMap );
                     }
-                    Method[] baked = new Method[ entry.getValue().size() ];
+                    EventHandlerMethod[] baked = new EventHandlerMethod[ entry.getValue().size() ];
                     currentPriorityMap.put( listener, entry.getValue().toArray( baked ) );
                 }
+                dirty.add( e.getKey() );
             }
+            jfr.finish( "register", listener, handler.keySet() );
+        }
+
+        public void unregister(Object listener)
+        {
+            RegistrationEvent jfr = RegistrationEvent.start();
+            Map<Class<?>, Map<Byte, List<EventHandlerMethod>>> handler = EventHandlerScanner.findHandlers( listener, null );
+            for ( Map.Entry<Class<?>, Map<Byte, List<EventHandlerMethod>>> e : handler.entrySet() )
+            {
+                Map<Byte, Map<Object, EventHandlerMethod[]>> prioritiesMap = byListenerAndPriority.get( e.getKey() );
+                if ( prioritiesMap != null )
+                {
+                    for ( Byte priority : e.getValue().keySet() )
+                    {
+                        Map<Object, EventHandlerMethod[]> currentPriority = prioritiesMap.get( priority );
+                        if ( currentPriority != null )
+                        {
+                            currentPriority.remove( listener );
+                            if ( currentPriority.isEmpty() )
+                            {
+                                prioritiesMap.remove( priority );
+                            }
+                        }
+                    }
+                    if ( prioritiesMap.isEmpty() )
+                    {
+                        byListenerAndPriority.remove( e.getKey() );
+                    }
+                }
+                dirty.add( e.getKey() );
+            }
+            jfr.finish( "unregister", listener, handler.keySet() );
         }
 
         /**
-         * Shouldn't be called without first locking the writeLock.
+         * Only called from {@link #build()}, for event classes whose handlers changed.
          */
         private void bakeHandlers(Class<?> eventClass)
         {
-            Map<Byte, Map<Object, Method[]>> handlersByPriority = byListenerAndPriority.get( eventClass );
+            BakeEvent jfr = BakeEvent.start();
+            Map<Byte, Map<Object, EventHandlerMethod[]>> handlersByPriority = byListenerAndPriority.get( eventClass );
             if ( handlersByPriority != null )
             {
                 List<EventHandlerMethod> handlersList = new ArrayList<>( handlersByPriority.size() * 2 );
@@ -134,23 +166,21 @@ public class FrozenEventBus {
                 byte value = Byte.MIN_VALUE;
                 do
                 {
-                    Map<Object, Method[]> handlersByListener = handlersByPriority.get( value );
+                    Map<Object, EventHandlerMethod[]> handlersByListener = handlersByPriority.get( value );
                     if ( handlersByListener != null )
                     {
-                        for ( Map.Entry<Object, Method[]> listenerHandlers : handlersByListener.entrySet() )
+                        for ( Map.Entry<Object, EventHandlerMethod[]> listenerHandlers : handlersByListener.entrySet() )
                         {
-                            for ( Method method : listenerHandlers.getValue() )
-                            {
-                                EventHandlerMethod ehm = new EventHandlerMethod( listenerHandlers.getKey(), method );
-                                handlersList.add( ehm );
-                            }
+                            Collections.addAll( handlersList, listenerHandlers.getValue() );
                         }
                     }
                 } while ( value++ < Byte.MAX_VALUE );
-                byEventBaked.put( eventClass, handlersList.toArray( new EventHandlerMethod[ handlersList.size() ] ) );
+                byEventBaked.put( eventClass, ImmutableList.copyOf( handlersList ) );
+                jfr.finish( eventClass, handlersList.size() );
             } else
             {
-                byEventBaked.put( eventClass, null );
+                byEventBaked.remove( eventClass );
+                jfr.finish( eventClass, 0 );
             }
         }
     }
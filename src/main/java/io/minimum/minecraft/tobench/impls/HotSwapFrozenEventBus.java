@@ -0,0 +1,136 @@
+package io.minimum.minecraft.tobench.impls;
+
+import io.minimum.minecraft.tobench.EventBus;
+import io.minimum.minecraft.tobench.EventExceptionHandler;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link FrozenEventBus} which can still be modified.
+ * <p>
+ * Posts go straight to the current frozen snapshot, held in a single volatile
+ * field. Registrations are applied to a pending {@link FrozenEventBus.Builder}
+ * instead, and a background thread builds and swaps in a new snapshot once
+ * {@code rebuildDelayMillis} have passed since the first unapplied change, so
+ * a burst of changes results in a single rebuild. Until then, posts keep
+ * seeing the previous snapshot; call {@link #flush()} when a change has to be
+ * visible right away.
+ */
+public class HotSwapFrozenEventBus implements EventBus
+{
+
+    private static final ScheduledExecutorService REBUILDER = Executors.newSingleThreadScheduledExecutor( new ThreadFactory()
+    {
+        @Override
+        public Thread newThread(Runnable r)
+        {
+            Thread thread = new Thread( r, "FrozenEventBus Rebuilder" );
+            thread.setDaemon( true );
+            return thread;
+        }
+    } );
+
+    private final FrozenEventBus.Builder pending = new FrozenEventBus.Builder();
+    private final Lock lock = new ReentrantLock();
+    private final Runnable rebuildTask = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            flush();
+        }
+    };
+    private final long rebuildDelayMillis;
+    private volatile FrozenEventBus snapshot;
+    // Guarded by lock.
+    private boolean dirty;
+    private boolean rebuildScheduled;
+
+    public HotSwapFrozenEventBus()
+    {
+        this( 50, null );
+    }
+
+    /**
+     * @param rebuildDelayMillis how long after a change the background rebuild
+     * runs, or a negative value to only rebuild on {@link #flush()}
+     * @param exceptionHandler handler for exceptions thrown by event handlers,
+     * may be null
+     */
+    public HotSwapFrozenEventBus(long rebuildDelayMillis, EventExceptionHandler exceptionHandler)
+    {
+        this.rebuildDelayMillis = rebuildDelayMillis;
+        this.pending.setExceptionHandler( exceptionHandler );
+        this.snapshot = pending.build();
+    }
+
+    public void post(Object event)
+    {
+        snapshot.post( event );
+    }
+
+    public void register(Object listener)
+    {
+        lock.lock();
+        try
+        {
+            pending.register( listener );
+            changed();
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public void unregister(Object listener)
+    {
+        lock.lock();
+        try
+        {
+            pending.unregister( listener );
+            changed();
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Builds and swaps in a new snapshot if there are unapplied changes. Once
+     * this returns, every post sees all changes made before it was called.
+     */
+    public void flush()
+    {
+        lock.lock();
+        try
+        {
+            rebuildScheduled = false;
+            if ( dirty )
+            {
+                dirty = false;
+                snapshot = pending.build();
+            }
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Shouldn't be called without first locking the lock.
+     */
+    private void changed()
+    {
+        dirty = true;
+        if ( rebuildDelayMillis >= 0 && !rebuildScheduled )
+        {
+            rebuildScheduled = true;
+            REBUILDER.schedule( rebuildTask, rebuildDelayMillis, TimeUnit.MILLISECONDS );
+        }
+    }
+}
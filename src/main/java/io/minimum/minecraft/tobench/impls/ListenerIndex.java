@@ -0,0 +1,108 @@
+package io.minimum.minecraft.tobench.impls;
+
+/**
+ * Maps registered listeners to a value, e.g. the event classes they have
+ * handlers for, so unregistering doesn't have to scan the listener again. An
+ * open addressing table keyed by the listener's hash code: probes compare the
+ * primitive keys and only call {@code equals} on a match, and there are no
+ * entry objects. Listeners are matched by {@code equals}, like the keys of a
+ * {@link java.util.HashMap}.
+ * <p>
+ * Not thread safe.
+ */
+final class ListenerIndex<V>
+{
+
+    private int[] keys = new int[ 16 ];
+    private Object[] listeners = new Object[ 16 ];
+    private Object[] values = new Object[ 16 ];
+    private int size;
+
+    /**
+     * Only called for listeners that aren't in the index yet.
+     */
+    void put(Object listener, V value)
+    {
+        if ( ( size + 1 ) * 2 > keys.length )
+        {
+            resize( keys.length * 2 );
+        }
+        insert( hash( listener ), listener, value );
+        size++;
+    }
+
+    /**
+     * Removes the listener, returning its value or null if it wasn't in the
+     * index.
+     */
+    @SuppressWarnings("unchecked")
+    V remove(Object listener)
+    {
+        int mask = keys.length - 1;
+        int key = hash( listener );
+        int i = key & mask;
+        while ( listeners[i] != null && !( keys[i] == key && listener.equals( listeners[i] ) ) )
+        {
+            i = ( i + 1 ) & mask;
+        }
+        if ( listeners[i] == null )
+        {
+            return null;
+        }
+        V removed = (V) values[i];
+        size--;
+
+        // Shift later entries of the probe sequence back instead of leaving a tombstone.
+        for ( int j = ( i + 1 ) & mask; listeners[j] != null; j = ( j + 1 ) & mask )
+        {
+            int home = keys[j] & mask;
+            if ( ( j > i && ( home <= i || home > j ) ) || ( j < i && ( home <= i && home > j ) ) )
+            {
+                keys[i] = keys[j];
+                listeners[i] = listeners[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        listeners[i] = null;
+        values[i] = null;
+        return removed;
+    }
+
+    private static int hash(Object listener)
+    {
+        int hash = listener.hashCode();
+        // Spread the high bits, as only the low ones pick the slot.
+        return hash ^ ( hash >>> 16 );
+    }
+
+    private void resize(int capacity)
+    {
+        int[] oldKeys = keys;
+        Object[] oldListeners = listeners;
+        Object[] oldValues = values;
+        keys = new int[ capacity ];
+        listeners = new Object[ capacity ];
+        values = new Object[ capacity ];
+        for ( int i = 0; i < oldKeys.length; i++ )
+        {
+            if ( oldListeners[i] != null )
+            {
+                insert( oldKeys[i], oldListeners[i], oldValues[i] );
+            }
+        }
+    }
+
+    private void insert(int key, Object listener, Object value)
+    {
+        int mask = keys.length - 1;
+        int i = key & mask;
+        while ( listeners[i] != null )
+        {
+            i = ( i + 1 ) & mask;
+        }
+        keys[i] = key;
+        listeners[i] = listener;
+        values[i] = value;
+    }
+}
@@ -1,29 +1,32 @@
 package io.minimum.minecraft.tobench.impls;
 
-import io.minimum.minecraft.tobench.EventHandler;
+import io.minimum.minecraft.tobench.AggregatingExceptionHandler;
+import io.minimum.minecraft.tobench.EventBus;
+import io.minimum.minecraft.tobench.EventExceptionHandler;
 import io.minimum.minecraft.tobench.EventHandlerMethod;
+import io.minimum.minecraft.tobench.EventHandlerScanner;
+import io.minimum.minecraft.tobench.jfr.BakeEvent;
+import io.minimum.minecraft.tobench.jfr.DispatchEvent;
+import io.minimum.minecraft.tobench.jfr.RegistrationEvent;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class LockingEventBus
+public class LockingEventBus implements EventBus
 {
 
-    private final Map<Class<?>, Map<Byte, Map<Object, Method[]>>> byListenerAndPriority = new HashMap<>();
+    private final Map<Class<?>, Map<Byte, Map<Object, EventHandlerMethod[]>>> byListenerAndPriority = new HashMap<>();
     private final Map<Class<?>, EventHandlerMethod[]> byEventBaked = new HashMap<>();
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
     private final Logger logger;
+    private final EventExceptionHandler exceptionHandler;
 
     public LockingEventBus()
     {
@@ -31,12 +34,19 @@ public class LockingEventBus
     }
 
     public LockingEventBus(Logger logger)
+    {
+        this( logger, null );
+    }
+
+    public LockingEventBus(Logger logger, EventExceptionHandler exceptionHandler)
     {
         this.logger = ( logger == null ) ? Logger.getLogger( Logger.GLOBAL_LOGGER_NAME ) : logger;
+        this.exceptionHandler = ( exceptionHandler == null ) ? new AggregatingExceptionHandler( this.logger ) : exceptionHandler;
     }
 
     public void post(Object event)
     {
+        DispatchEvent dispatch = DispatchEvent.start();
         EventHandlerMethod[] handlers;
         lock.readLock().lock();
         try
@@ -62,70 +72,37 @@ public class LockingEventBus
                     throw new Error( "Method rejected target/argument: " + event, ex );
                 } catch ( InvocationTargetException ex )
                 {
-                    logger.log( Level.WARNING, MessageFormat.format( "Error dispatching event {0} to listener {1}", event, method.getListener() ), ex.getCause() );
+                    exceptionHandler.handleException( event, method, ex.getCause() );
                 }
             }
         }
-    }
-
-    private Map<Class<?>, Map<Byte, Set<Method>>> findHandlers(Object listener)
-    {
-        Map<Class<?>, Map<Byte, Set<Method>>> handler = new HashMap<>();
-        for ( Method m : listener.getClass().getDeclaredMethods() )
-        {
-            EventHandler annotation = m.getAnnotation( EventHandler.class );
-            if ( annotation != null )
-            {
-                Class<?>[] params = m.getParameterTypes();
-                if ( params.length != 1 )
-                {
-                    logger.log( Level.INFO, "Method {0} in class {1} annotated with {2} does not have single argument", new Object[]
-                            {
-                                    m, listener.getClass(), annotation
-                            } );
-                    continue;
-                }
-                Map<Byte, Set<Method>> prioritiesMap = handler.get( params[0] );
-                if ( prioritiesMap == null )
-                {
-                    prioritiesMap = new HashMap<>();
-                    handler.put( params[0], prioritiesMap );
-                }
-                Set<Method> priority = prioritiesMap.get( annotation.priority() );
-                if ( priority == null )
-                {
-                    priority = new HashSet<>();
-                    prioritiesMap.put( annotation.priority(), priority );
-                }
-                priority.add( m );
-            }
-        }
-        return handler;
+        dispatch.finish( event.getClass(), handlers == null ? 0 : handlers.length );
     }
 
     public void register(Object listener)
     {
-        Map<Class<?>, Map<Byte, Set<Method>>> handler = findHandlers( listener );
+        RegistrationEvent jfr = RegistrationEvent.start();
+        Map<Class<?>, Map<Byte, List<EventHandlerMethod>>> handler = EventHandlerScanner.findHandlers( listener, logger );
         lock.writeLock().lock();
         try
         {
-            for ( Map.Entry<Class<?>, Map<Byte, Set<Method>>> e : handler.entrySet() )
+            for ( Map.Entry<Class<?>, Map<Byte, List<EventHandlerMethod>>> e : handler.entrySet() )
             {
-                Map<Byte, Map<Object, Method[]>> prioritiesMap = byListenerAndPriority.get( e.getKey() );
+                Map<Byte, Map<Object, EventHandlerMethod[]>> prioritiesMap = byListenerAndPriority.get( e.getKey() );
                 if ( prioritiesMap == null )
                 {
                     prioritiesMap = new HashMap<>();
                     byListenerAndPriority.put( e.getKey(), prioritiesMap );
                 }
-                for ( Map.Entry<Byte, Set<Method>> entry : e.getValue().entrySet() )
+                for ( Map.Entry<Byte, List<EventHandlerMethod>> entry : e.getValue().entrySet() )
                 {
-                    Map<Object, Method[]> currentPriorityMap = prioritiesMap.get( entry.getKey() );
+                    Map<Object, EventHandlerMethod[]> currentPriorityMap = prioritiesMap.get( entry.getKey() );
                     if ( currentPriorityMap == null )
                     {
                         currentPriorityMap = new HashMap<>();
                         prioritiesMap.put( entry.getKey(), currentPriorityMap );
                     }
-                    Method[] baked = new Method[ entry.getValue().size() ];
+                    EventHandlerMethod[] baked = new EventHandlerMethod[ entry.getValue().size() ];
                     currentPriorityMap.put( listener, entry.getValue().toArray( baked ) );
                 }
                 bakeHandlers( e.getKey() );
@@ -134,22 +111,24 @@ public class LockingEventBus
         {
             lock.writeLock().unlock();
         }
+        jfr.finish( "register", listener, handler.keySet() );
     }
 
     public void unregister(Object listener)
     {
-        Map<Class<?>, Map<Byte, Set<Method>>> handler = findHandlers( listener );
+        RegistrationEvent jfr = RegistrationEvent.start();
+        Map<Class<?>, Map<Byte, List<EventHandlerMethod>>> handler = EventHandlerScanner.findHandlers( listener, logger );
         lock.writeLock().lock();
         try
         {
-            for ( Map.Entry<Class<?>, Map<Byte, Set<Method>>> e : handler.entrySet() )
+            for ( Map.Entry<Class<?>, Map<Byte, List<EventHandlerMethod>>> e : handler.entrySet() )
             {
-                Map<Byte, Map<Object, Method[]>> prioritiesMap = byListenerAndPriority.get( e.getKey() );
+                Map<Byte, Map<Object, EventHandlerMethod[]>> prioritiesMap = byListenerAndPriority.get( e.getKey() );
                 if ( prioritiesMap != null )
                 {
                     for ( Byte priority : e.getValue().keySet() )
                     {
-                        Map<Object, Method[]> currentPriority = prioritiesMap.get( priority );
+                        Map<Object, EventHandlerMethod[]> currentPriority = prioritiesMap.get( priority );
                         if ( currentPriority != null )
                         {
                             currentPriority.remove( listener );
@@ -170,6 +149,7 @@ public class LockingEventBus
         {
             lock.writeLock().unlock();
         }
+        jfr.finish( "unregister", listener, handler.keySet() );
     }
 
     /**
@@ -179,7 +159,8 @@ public class LockingEventBus
      */
     private void bakeHandlers(Class<?> eventClass)
     {
-        Map<Byte, Map<Object, Method[]>> handlersByPriority = byListenerAndPriority.get( eventClass );
+        BakeEvent jfr = BakeEvent.start();
+        Map<Byte, Map<Object, EventHandlerMethod[]>> handlersByPriority = byListenerAndPriority.get( eventClass );
         if ( handlersByPriority != null )
         {
             List<EventHandlerMethod> handlersList = new ArrayList<>( handlersByPriority.size() * 2 );
@@ -189,23 +170,21 @@ public class LockingEventBus
             byte value = Byte.MIN_VALUE;
             do
             {
-                Map<Object, Method[]> handlersByListener = handlersByPriority.get( value );
+                Map<Object, EventHandlerMethod[]> handlersByListener = handlersByPriority.get( value );
                 if ( handlersByListener != null )
                 {
-                    for ( Map.Entry<Object, Method[]> listenerHandlers : handlersByListener.entrySet() )
+                    for ( Map.Entry<Object, EventHandlerMethod[]> listenerHandlers : handlersByListener.entrySet() )
                     {
-                        for ( Method method : listenerHandlers.getValue() )
-                        {
-                            EventHandlerMethod ehm = new EventHandlerMethod( listenerHandlers.getKey(), method );
-                            handlersList.add( ehm );
-                        }
+                        Collections.addAll( handlersList, listenerHandlers.getValue() );
                     }
                 }
             } while ( value++ < Byte.MAX_VALUE );
             byEventBaked.put( eventClass, handlersList.toArray( new EventHandlerMethod[ handlersList.size() ] ) );
+            jfr.finish( eventClass, handlersList.size() );
         } else
         {
             byEventBaked.put( eventClass, null );
+            jfr.finish( eventClass, 0 );
         }
     }
 }
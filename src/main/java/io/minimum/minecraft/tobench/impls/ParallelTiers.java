@@ -0,0 +1,146 @@
+package io.minimum.minecraft.tobench.impls;
+
+import io.minimum.minecraft.tobench.EventExceptionHandler;
+import io.minimum.minecraft.tobench.EventHandlerMethod;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The baked handlers of an event class dispatched with parallel tiers: all
+ * handlers of one priority run concurrently on a {@link ForkJoinPool}, while
+ * the tiers themselves still run one after another in priority order.
+ * <p>
+ * A tier only goes parallel once its handlers have been observed to take at
+ * least {@code minWorkNanos} combined, so cheap tiers never pay for the
+ * hand-off. The estimate is a moving average which starts out at zero, so the
+ * first posts of a tier always run sequentially.
+ */
+final class ParallelTiers
+{
+
+    private final EventHandlerMethod[] handlers;
+    /**
+     * Exclusive end index into {@link #handlers} of every tier, in order.
+     */
+    private final int[] tierEnds;
+    /**
+     * Estimated sequential cost of each tier. Updated racily; it only needs to
+     * be roughly right.
+     */
+    private final long[] tierNanos;
+    private final ForkJoinPool pool;
+    private final long minWorkNanos;
+
+    ParallelTiers(EventHandlerMethod[] handlers, int[] tierEnds, ForkJoinPool pool, long minWorkNanos)
+    {
+        this.handlers = handlers;
+        this.tierEnds = tierEnds;
+        this.tierNanos = new long[ tierEnds.length ];
+        this.pool = pool;
+        this.minWorkNanos = minWorkNanos;
+    }
+
+    int size()
+    {
+        return handlers.length;
+    }
+
+    void post(Object event, EventExceptionHandler exceptionHandler)
+    {
+        int start = 0;
+        for ( int tier = 0; tier < tierEnds.length; tier++ )
+        {
+            int end = tierEnds[tier];
+            long work;
+            if ( end - start > 1 && tierNanos[tier] >= minWorkNanos )
+            {
+                work = invokeParallel( event, start, end, exceptionHandler );
+            } else
+            {
+                long begin = System.nanoTime();
+                for ( int i = start; i < end; i++ )
+                {
+                    dispatch( handlers[i], event, exceptionHandler );
+                }
+                work = System.nanoTime() - begin;
+            }
+            tierNanos[tier] += ( work - tierNanos[tier] ) >> 3;
+            start = end;
+        }
+    }
+
+    private long invokeParallel(Object event, int start, int end, EventExceptionHandler exceptionHandler)
+    {
+        HandlerTask[] tasks = new HandlerTask[ end - start ];
+        for ( int i = 1; i < tasks.length; i++ )
+        {
+            tasks[i] = new HandlerTask( handlers[start + i], event, exceptionHandler );
+            pool.execute( tasks[i] );
+        }
+        // Run the first one ourselves instead of just waiting.
+        tasks[0] = new HandlerTask( handlers[start], event, exceptionHandler );
+        try
+        {
+            tasks[0].compute();
+        } finally
+        {
+            // Even if ours threw, the others must be done before the next tier runs.
+            for ( int i = 1; i < tasks.length; i++ )
+            {
+                tasks[i].quietlyJoin();
+            }
+        }
+
+        long work = tasks[0].nanos;
+        for ( int i = 1; i < tasks.length; i++ )
+        {
+            tasks[i].join();
+            work += tasks[i].nanos;
+        }
+        return work;
+    }
+
+    private static void dispatch(EventHandlerMethod method, Object event, EventExceptionHandler exceptionHandler)
+    {
+        try
+        {
+            method.invoke( event );
+        } catch ( IllegalAccessException ex )
+        {
+            throw new Error( "Method became inaccessible: " + event, ex );
+        } catch ( IllegalArgumentException ex )
+        {
+            throw new Error( "Method rejected target/argument: " + event, ex );
+        } catch ( InvocationTargetException ex )
+        {
+            exceptionHandler.handleException( event, method, ex.getCause() );
+        }
+    }
+
+    private static final class HandlerTask extends RecursiveAction
+    {
+
+        private static final long serialVersionUID = 1L;
+        private final EventHandlerMethod method;
+        private final Object event;
+        private final EventExceptionHandler exceptionHandler;
+        private long nanos;
+
+        private HandlerTask(EventHandlerMethod method, Object event, EventExceptionHandler exceptionHandler)
+        {
+            this.method = method;
+            this.event = event;
+            this.exceptionHandler = exceptionHandler;
+        }
+
+        @Override
+        protected void compute()
+        {
+            long begin = System.nanoTime();
+            dispatch( method, event, exceptionHandler );
+            nanos = System.nanoTime() - begin;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package io.minimum.minecraft.tobench.impls;
+
+import io.minimum.minecraft.tobench.EventBus;
+import io.minimum.minecraft.tobench.EventPool;
+import io.minimum.minecraft.tobench.PooledEvent;
+
+/**
+ * Wraps another bus, recycling {@link PooledEvent}s: take an event from
+ * {@link #acquire(Class)}, fill it in and post it, and it goes back to the
+ * pool once dispatch completes.
+ * <p>
+ * The wrapped bus must dispatch synchronously; wrapping e.g. a
+ * {@link CoalescingEventBus} would recycle events before they're dispatched.
+ */
+public class PooledEventBus implements EventBus
+{
+
+    private final EventBus delegate;
+    private final EventPool pool;
+
+    public PooledEventBus(EventBus delegate)
+    {
+        this( delegate, new EventPool() );
+    }
+
+    public PooledEventBus(EventBus delegate, EventPool pool)
+    {
+        this.delegate = delegate;
+        this.pool = pool;
+    }
+
+    /**
+     * Returns a reset event of the given class, ready to be filled in and
+     * posted.
+     */
+    public <T extends PooledEvent> T acquire(Class<T> type)
+    {
+        return pool.acquire( type );
+    }
+
+    public void post(Object event)
+    {
+        try
+        {
+            delegate.post( event );
+        } finally
+        {
+            if ( event instanceof PooledEvent )
+            {
+                pool.release( (PooledEvent) event );
+            }
+        }
+    }
+
+    public void register(Object listener)
+    {
+        delegate.register( listener );
+    }
+
+    public void unregister(Object listener)
+    {
+        delegate.unregister( listener );
+    }
+}
@@ -0,0 +1,121 @@
+package io.minimum.minecraft.tobench.impls;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * A scheduling class of a {@link SchedulingEventBus}, e.g. "login" or
+ * "chat", with its own queue and gauges. The weight is how many of its
+ * events are dispatched per round before moving on to the next class. A
+ * class belongs to a single bus.
+ * <p>
+ * Gauges are updated under the bus' queue lock and read racily.
+ */
+public final class SchedulingClass
+{
+
+    private final String name;
+    private final int weight;
+    // Guarded by the bus' queue lock.
+    final Queue<SchedulingEventBus.Queued> queue = new ArrayDeque<>();
+    private volatile int queueDepth;
+    private volatile long dropped;
+    private volatile long dispatched;
+    private volatile long totalWaitNanos;
+    private volatile long lastWaitNanos;
+    private volatile long maxWaitNanos;
+
+    public SchedulingClass(String name, int weight)
+    {
+        if ( weight < 1 )
+        {
+            throw new IllegalArgumentException( "Weight must be at least 1, got " + weight );
+        }
+        this.name = name;
+        this.weight = weight;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public int getWeight()
+    {
+        return weight;
+    }
+
+    /**
+     * Returns how many events of this class are waiting to be dispatched.
+     */
+    public int getQueueDepth()
+    {
+        return queueDepth;
+    }
+
+    /**
+     * Returns how many events were dropped for exceeding their type's quota.
+     */
+    public long getDropped()
+    {
+        return dropped;
+    }
+
+    public long getDispatched()
+    {
+        return dispatched;
+    }
+
+    /**
+     * Returns how long the most recently dispatched event waited in the queue.
+     */
+    public long getLastWaitNanos()
+    {
+        return lastWaitNanos;
+    }
+
+    public long getMeanWaitNanos()
+    {
+        long count = dispatched;
+        return count == 0 ? 0 : totalWaitNanos / count;
+    }
+
+    public long getMaxWaitNanos()
+    {
+        return maxWaitNanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name + "[depth=" + queueDepth + ", dropped=" + dropped + ", meanWait=" + getMeanWaitNanos() + "ns, maxWait=" + maxWaitNanos + "ns]";
+    }
+
+    // The following are only called with the bus' queue lock held.
+
+    void enqueued(SchedulingEventBus.Queued queued)
+    {
+        queue.add( queued );
+        queueDepth++;
+    }
+
+    void dropped()
+    {
+        dropped++;
+    }
+
+    SchedulingEventBus.Queued dequeue(long now)
+    {
+        SchedulingEventBus.Queued queued = queue.poll();
+        long wait = now - queued.enqueuedNanos;
+        queueDepth--;
+        dispatched++;
+        totalWaitNanos += wait;
+        lastWaitNanos = wait;
+        if ( wait > maxWaitNanos )
+        {
+            maxWaitNanos = wait;
+        }
+        return queued;
+    }
+}
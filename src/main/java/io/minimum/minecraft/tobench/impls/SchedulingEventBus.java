@@ -0,0 +1,253 @@
+package io.minimum.minecraft.tobench.impls;
+
+import io.minimum.minecraft.tobench.EventBus;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Wraps another bus, dispatching posted events asynchronously on a pool of
+ * workers, scheduled by class rather than first come, first served. Under
+ * overload this keeps e.g. logins and disconnects moving through a flood of
+ * chat or tab completions.
+ * <p>
+ * Every event type is assigned a {@link SchedulingClass} and a quota, the
+ * most events of that type which may be queued at once; events posted over
+ * quota are dropped and counted. Unassigned types go to the lowest class
+ * without a quota.
+ * <p>
+ * Workers serve the classes by weighted round robin, highest first: each
+ * round a class may dispatch up to its weight in events before the next
+ * class gets its turn, so higher classes are drained first without starving
+ * lower ones. Events of one class are dispatched in posting order, but with
+ * more than one worker, handlers may run concurrently.
+ */
+public class SchedulingEventBus implements EventBus
+{
+
+    private final EventBus delegate;
+    private final SchedulingClass[] classes;
+    private final TypeQuota unassigned;
+    private final ConcurrentMap<Class<?>, TypeQuota> quotas = new ConcurrentHashMap<>();
+    private final Lock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Thread[] workers;
+    private final Logger logger;
+    // The rest is guarded by the lock.
+    private int queued;
+    private int current;
+    private int credit;
+    private boolean running = true;
+
+    /**
+     * @param classes the scheduling classes, highest first
+     */
+    public SchedulingEventBus(EventBus delegate, int workerCount, SchedulingClass... classes)
+    {
+        this( delegate, workerCount, null, classes );
+    }
+
+    public SchedulingEventBus(EventBus delegate, int workerCount, Logger logger, SchedulingClass... classes)
+    {
+        if ( workerCount < 1 )
+        {
+            throw new IllegalArgumentException( "At least one worker is required, got " + workerCount );
+        }
+        if ( classes.length == 0 )
+        {
+            throw new IllegalArgumentException( "At least one scheduling class is required" );
+        }
+        this.delegate = delegate;
+        this.classes = classes.clone();
+        this.unassigned = new TypeQuota( classes[classes.length - 1], Integer.MAX_VALUE );
+        this.credit = classes[0].getWeight();
+        this.logger = ( logger == null ) ? Logger.getLogger( Logger.GLOBAL_LOGGER_NAME ) : logger;
+        this.workers = new Thread[ workerCount ];
+        for ( int i = 0; i < workerCount; i++ )
+        {
+            workers[i] = new Thread( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    work();
+                }
+            }, "EventBus Scheduler Worker #" + i );
+            workers[i].setDaemon( true );
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Schedules events of the given type in the class, with at most
+     * {@code quota} of them queued at once. A type can only be assigned once,
+     * as its queued events are counted against the quota it was posted with.
+     *
+     * @throws IllegalStateException if the type was already assigned
+     */
+    public void assign(Class<?> eventClass, SchedulingClass schedulingClass, int quota)
+    {
+        if ( quota < 1 )
+        {
+            throw new IllegalArgumentException( "Quota must be at least 1, got " + quota );
+        }
+        for ( SchedulingClass known : classes )
+        {
+            if ( known == schedulingClass )
+            {
+                if ( quotas.putIfAbsent( eventClass, new TypeQuota( schedulingClass, quota ) ) != null )
+                {
+                    throw new IllegalStateException( "Event class " + eventClass.getName() + " is already assigned" );
+                }
+                return;
+            }
+        }
+        throw new IllegalArgumentException( "Scheduling class " + schedulingClass.getName() + " does not belong to this bus" );
+    }
+
+    /**
+     * Queues the event for dispatch, or drops it if its type is over quota.
+     *
+     * @throws IllegalStateException if the bus was closed
+     */
+    public void post(Object event)
+    {
+        TypeQuota quota = quotas.get( event.getClass() );
+        if ( quota == null )
+        {
+            quota = unassigned;
+        }
+        Queued entry = new Queued( event, quota, System.nanoTime() );
+        lock.lock();
+        try
+        {
+            if ( !running )
+            {
+                throw new IllegalStateException( "SchedulingEventBus was closed" );
+            }
+            if ( quota.queued >= quota.quota )
+            {
+                quota.schedulingClass.dropped();
+                return;
+            }
+            quota.queued++;
+            quota.schedulingClass.enqueued( entry );
+            queued++;
+            notEmpty.signal();
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public void register(Object listener)
+    {
+        delegate.register( listener );
+    }
+
+    public void unregister(Object listener)
+    {
+        delegate.unregister( listener );
+    }
+
+    /**
+     * Stops the workers once they have dispatched everything queued so far.
+     * Later posts are rejected.
+     */
+    public void close()
+    {
+        lock.lock();
+        try
+        {
+            running = false;
+            notEmpty.signalAll();
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private void work()
+    {
+        while ( true )
+        {
+            Queued entry;
+            lock.lock();
+            try
+            {
+                while ( queued == 0 )
+                {
+                    if ( !running )
+                    {
+                        return;
+                    }
+                    notEmpty.awaitUninterruptibly();
+                }
+                entry = next();
+                entry.quota.queued--;
+                queued--;
+            } finally
+            {
+                lock.unlock();
+            }
+
+            try
+            {
+                delegate.post( entry.event );
+            } catch ( Throwable t )
+            {
+                logger.log( Level.SEVERE, "Error dispatching event " + entry.event, t );
+            }
+        }
+    }
+
+    /**
+     * Takes the next event by weighted round robin. Only called with the lock
+     * held and at least one event queued.
+     */
+    private Queued next()
+    {
+        while ( credit == 0 || classes[current].queue.isEmpty() )
+        {
+            current = ( current + 1 ) % classes.length;
+            credit = classes[current].getWeight();
+        }
+        credit--;
+        return classes[current].dequeue( System.nanoTime() );
+    }
+
+    static final class Queued
+    {
+
+        private final Object event;
+        private final TypeQuota quota;
+        final long enqueuedNanos;
+
+        private Queued(Object event, TypeQuota quota, long enqueuedNanos)
+        {
+            this.event = event;
+            this.quota = quota;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    private static final class TypeQuota
+    {
+
+        private final SchedulingClass schedulingClass;
+        private final int quota;
+        // Guarded by the bus' lock.
+        private int queued;
+
+        private TypeQuota(SchedulingClass schedulingClass, int quota)
+        {
+            this.schedulingClass = schedulingClass;
+            this.quota = quota;
+        }
+    }
+}
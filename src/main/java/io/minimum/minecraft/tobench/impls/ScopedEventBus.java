@@ -0,0 +1,283 @@
+package io.minimum.minecraft.tobench.impls;
+
+import io.minimum.minecraft.tobench.EventBus;
+import io.minimum.minecraft.tobench.EventExceptionHandler;
+import io.minimum.minecraft.tobench.EventHandlerMethod;
+import io.minimum.minecraft.tobench.EventHandlerScanner;
+import io.minimum.minecraft.tobench.jfr.DispatchEvent;
+import io.minimum.minecraft.tobench.jfr.RegistrationEvent;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * A child bus for a narrower scope, e.g. one server or connection. Events
+ * posted to it reach the handlers of its parent as well as its own, while
+ * handlers registered with it never see events posted to the parent.
+ * <p>
+ * Creating a child only allocates the child itself. It holds no handlers of
+ * its parent, just its own, already sorted by priority; the two are merged
+ * lazily the first time an event class is posted after either changed, and
+ * the merged array is cached until then. Children without handlers of their
+ * own for an event class dispatch straight from the parent's array.
+ * <p>
+ * Parallel dispatch configured on the parent does not apply to children.
+ */
+public class ScopedEventBus implements EventBus, BakedHandlerSource
+{
+
+    private static final Comparator<EventHandlerMethod> BY_PRIORITY = new Comparator<EventHandlerMethod>()
+    {
+        @Override
+        public int compare(EventHandlerMethod o1, EventHandlerMethod o2)
+        {
+            return Byte.compare( o1.getPriority(), o2.getPriority() );
+        }
+    };
+
+    private final BakedHandlerSource parent;
+    private final Lock lock = new ReentrantLock();
+    private volatile Map<Class<?>, EventHandlerMethod[]> local = Collections.emptyMap();
+    /**
+     * Published racily: concurrent merges may overwrite each other, which
+     * only costs a repeated merge.
+     */
+    private volatile Map<Class<?>, Merged> merged = Collections.emptyMap();
+
+    ScopedEventBus(BakedHandlerSource parent)
+    {
+        this.parent = parent;
+    }
+
+    /**
+     * Creates a child of this bus, inheriting both this bus' handlers and
+     * those of its parents.
+     */
+    public ScopedEventBus createChild()
+    {
+        return new ScopedEventBus( this );
+    }
+
+    public void post(Object event)
+    {
+        DispatchEvent dispatch = DispatchEvent.start();
+        EventHandlerMethod[] handlers = getBakedHandlers( event.getClass() );
+
+        if ( handlers != null )
+        {
+            EventExceptionHandler exceptionHandler = parent.getExceptionHandler();
+            for ( EventHandlerMethod method : handlers )
+            {
+                try
+                {
+                    method.invoke( event );
+                } catch ( IllegalAccessException ex )
+                {
+                    throw new Error( "Method became inaccessible: " + event, ex );
+                } catch ( IllegalArgumentException ex )
+                {
+                    throw new Error( "Method rejected target/argument: " + event, ex );
+                } catch ( InvocationTargetException ex )
+                {
+                    exceptionHandler.handleException( event, method, ex.getCause() );
+                }
+            }
+        }
+        dispatch.finish( event.getClass(), handlers == null ? 0 : handlers.length );
+    }
+
+    /**
+     * Registers the listener's handlers. Registering a listener again replaces
+     * its handlers.
+     */
+    public void register(Object listener)
+    {
+        RegistrationEvent jfr = RegistrationEvent.start();
+        Map<Class<?>, Map<Byte, List<EventHandlerMethod>>> handler = EventHandlerScanner.findHandlers( listener, parent.getLogger() );
+        lock.lock();
+        try
+        {
+            Map<Class<?>, EventHandlerMethod[]> baked = new HashMap<>( local );
+            Set<Class<?>> touched = removeHandlers( baked, listener );
+            for ( Map.Entry<Class<?>, Map<Byte, List<EventHandlerMethod>>> e : handler.entrySet() )
+            {
+                List<EventHandlerMethod> handlersList = new ArrayList<>();
+                EventHandlerMethod[] existing = baked.get( e.getKey() );
+                if ( existing != null )
+                {
+                    Collections.addAll( handlersList, existing );
+                }
+                for ( List<EventHandlerMethod> methods : e.getValue().values() )
+                {
+                    handlersList.addAll( methods );
+                }
+                // Stable, so handlers registered earlier stay first within a priority.
+                Collections.sort( handlersList, BY_PRIORITY );
+                baked.put( e.getKey(), handlersList.toArray( new EventHandlerMethod[ handlersList.size() ] ) );
+                touched.add( e.getKey() );
+            }
+            local = baked.isEmpty() ? Collections.<Class<?>, EventHandlerMethod[]>emptyMap() : baked;
+            pruneMerged( touched );
+        } finally
+        {
+            lock.unlock();
+        }
+        jfr.finish( "register", listener, handler.keySet() );
+    }
+
+    public void unregister(Object listener)
+    {
+        RegistrationEvent jfr = RegistrationEvent.start();
+        Set<Class<?>> touched;
+        lock.lock();
+        try
+        {
+            Map<Class<?>, EventHandlerMethod[]> baked = new HashMap<>( local );
+            touched = removeHandlers( baked, listener );
+            local = baked.isEmpty() ? Collections.<Class<?>, EventHandlerMethod[]>emptyMap() : baked;
+            pruneMerged( touched );
+        } finally
+        {
+            lock.unlock();
+        }
+        jfr.finish( "unregister", listener, touched );
+    }
+
+    /**
+     * Removes the listener's handlers from the copy of the local handlers,
+     * returning the event classes it had handlers for. Shouldn't be called
+     * without first locking the lock.
+     */
+    private static Set<Class<?>> removeHandlers(Map<Class<?>, EventHandlerMethod[]> baked, Object listener)
+    {
+        Set<Class<?>> touched = new HashSet<>();
+        for ( Iterator<Map.Entry<Class<?>, EventHandlerMethod[]>> it = baked.entrySet().iterator(); it.hasNext(); )
+        {
+            Map.Entry<Class<?>, EventHandlerMethod[]> e = it.next();
+            List<EventHandlerMethod> handlersList = new ArrayList<>( e.getValue().length );
+            for ( EventHandlerMethod method : e.getValue() )
+            {
+                if ( !method.getListener().equals( listener ) )
+                {
+                    handlersList.add( method );
+                }
+            }
+            if ( handlersList.size() == e.getValue().length )
+            {
+                continue;
+            }
+            touched.add( e.getKey() );
+            if ( handlersList.isEmpty() )
+            {
+                it.remove();
+            } else
+            {
+                e.setValue( handlersList.toArray( new EventHandlerMethod[ handlersList.size() ] ) );
+            }
+        }
+        return touched;
+    }
+
+    /**
+     * Drops the cached merges of the event classes, which are stale now and
+     * would otherwise keep old copies of the parent's handlers alive.
+     * Shouldn't be called without first locking the lock.
+     */
+    private void pruneMerged(Set<Class<?>> touched)
+    {
+        Map<Class<?>, Merged> current = merged;
+        if ( touched.isEmpty() || current.isEmpty() )
+        {
+            return;
+        }
+        Map<Class<?>, Merged> pruned = new HashMap<>( current );
+        pruned.keySet().removeAll( touched );
+        // A merge racing with this may still publish a stale entry, which is
+        // rare enough to leave until its event class is touched again.
+        merged = pruned.isEmpty() ? Collections.<Class<?>, Merged>emptyMap() : pruned;
+    }
+
+    @Override
+    public EventHandlerMethod[] getBakedHandlers(Class<?> eventClass)
+    {
+        EventHandlerMethod[] inherited = parent.getBakedHandlers( eventClass );
+        Map<Class<?>, EventHandlerMethod[]> localSnapshot = local;
+        if ( localSnapshot.isEmpty() )
+        {
+            return inherited;
+        }
+        EventHandlerMethod[] own = localSnapshot.get( eventClass );
+        if ( own == null )
+        {
+            return inherited;
+        }
+        if ( inherited == null )
+        {
+            return own;
+        }
+
+        Merged cached = merged.get( eventClass );
+        if ( cached != null && cached.inherited == inherited && cached.own == own )
+        {
+            return cached.handlers;
+        }
+        return bakeHandlers( eventClass, inherited, own );
+    }
+
+    @Override
+    public EventExceptionHandler getExceptionHandler()
+    {
+        return parent.getExceptionHandler();
+    }
+
+    @Override
+    public Logger getLogger()
+    {
+        return parent.getLogger();
+    }
+
+    /**
+     * Merges the inherited and own handlers by priority, inherited ones first
+     * within a priority, and caches the result.
+     */
+    private EventHandlerMethod[] bakeHandlers(Class<?> eventClass, EventHandlerMethod[] inherited, EventHandlerMethod[] own)
+    {
+        EventHandlerMethod[] handlers = new EventHandlerMethod[ inherited.length + own.length ];
+        int i = 0, j = 0, k = 0;
+        while ( i < inherited.length && j < own.length )
+        {
+            handlers[k++] = inherited[i].getPriority() <= own[j].getPriority() ? inherited[i++] : own[j++];
+        }
+        while ( i < inherited.length )
+        {
+            handlers[k++] = inherited[i++];
+        }
+        while ( j < own.length )
+        {
+            handlers[k++] = own[j++];
+        }
+
+        Map<Class<?>, Merged> baked = new HashMap<>( merged );
+        baked.put( eventClass, new Merged( inherited, own, handlers ) );
+        merged = baked;
+        return handlers;
+    }
+
+    private static final class Merged
+    {
+
+        private final EventHandlerMethod[] inherited;
+        private final EventHandlerMethod[] own;
+        private final EventHandlerMethod[] handlers;
+
+        private Merged(EventHandlerMethod[] inherited, EventHandlerMethod[] own, EventHandlerMethod[] handlers)
+        {
+            this.inherited = inherited;
+            this.own = own;
+            this.handlers = handlers;
+        }
+    }
+}
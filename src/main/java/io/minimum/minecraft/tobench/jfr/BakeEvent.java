@@ -0,0 +1,45 @@
+package io.minimum.minecraft.tobench.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Recorded whenever rebaking the handlers of an event class takes longer than
+ * the threshold.
+ */
+@Name("io.minimum.minecraft.tobench.Bake")
+@Label("Handler Bake")
+@Category("Event Bus")
+@Description("The handlers of an event class baked into dispatch order")
+@Threshold("1 ms")
+@StackTrace(false)
+public class BakeEvent extends jdk.jfr.Event
+{
+
+    @Label("Event Class")
+    private Class<?> eventClass;
+
+    @Label("Handler Count")
+    private int handlerCount;
+
+    public static BakeEvent start()
+    {
+        BakeEvent jfr = new BakeEvent();
+        jfr.begin();
+        return jfr;
+    }
+
+    public void finish(Class<?> eventClass, int handlerCount)
+    {
+        if ( shouldCommit() )
+        {
+            this.eventClass = eventClass;
+            this.handlerCount = handlerCount;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package io.minimum.minecraft.tobench.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded for every {@code post}, covering dispatch to all handlers.
+ * <p>
+ * Disabled by default, as it would record millions of events per second at
+ * packet rates; enable {@code io.minimum.minecraft.tobench.Dispatch} in the
+ * recording's {@code .jfc} settings to opt in.
+ */
+@Name("io.minimum.minecraft.tobench.Dispatch")
+@Label("Event Dispatch")
+@Category("Event Bus")
+@Description("An event posted to an event bus")
+@Enabled(false)
+@StackTrace(false)
+public class DispatchEvent extends jdk.jfr.Event
+{
+
+    @Label("Event Class")
+    private Class<?> eventClass;
+
+    @Label("Handler Count")
+    private int handlerCount;
+
+    public static DispatchEvent start()
+    {
+        DispatchEvent jfr = new DispatchEvent();
+        jfr.begin();
+        return jfr;
+    }
+
+    public void finish(Class<?> eventClass, int handlerCount)
+    {
+        if ( shouldCommit() )
+        {
+            this.eventClass = eventClass;
+            this.handlerCount = handlerCount;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.minimum.minecraft.tobench.jfr;
+
+import io.minimum.minecraft.tobench.EventHandlerMethod;
+import io.minimum.minecraft.tobench.ListenerDispatcher;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import java.lang.reflect.Method;
+
+/**
+ * Recorded for single handler invocations taking longer than the threshold.
+ */
+@Name("io.minimum.minecraft.tobench.SlowHandler")
+@Label("Slow Event Handler")
+@Category("Event Bus")
+@Description("A single event handler invocation exceeding the threshold")
+@Threshold("1 ms")
+@StackTrace(false)
+public class HandlerEvent extends jdk.jfr.Event
+{
+
+    @Label("Event Class")
+    private Class<?> eventClass;
+
+    @Label("Listener Class")
+    private Class<?> listenerClass;
+
+    @Label("Method")
+    private String method;
+
+    public static HandlerEvent start()
+    {
+        HandlerEvent jfr = new HandlerEvent();
+        jfr.begin();
+        return jfr;
+    }
+
+    public void finish(Object event, EventHandlerMethod handler)
+    {
+        end();
+        if ( shouldCommit() )
+        {
+            this.eventClass = event.getClass();
+            this.listenerClass = handler.getListener().getClass();
+            this.method = handler.getMethodName();
+            commit();
+        }
+    }
+
+    /**
+     * Variant for buses that don't keep {@link EventHandlerMethod} instances;
+     * the invoker is either a {@link ListenerDispatcher} or a {@link Method}.
+     */
+    public void finish(Object event, Object listener, Object invoker, int handler)
+    {
+        end();
+        if ( shouldCommit() )
+        {
+            this.eventClass = event.getClass();
+            this.listenerClass = listener.getClass();
+            this.method = invoker instanceof ListenerDispatcher ? ( (ListenerDispatcher) invoker ).getMethodName( handler ) : ( (Method) invoker ).getName();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.minimum.minecraft.tobench.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+import java.util.Collection;
+
+/**
+ * Recorded for {@code register} and {@code unregister} calls, including
+ * rebaking the event classes touched, taking longer than the threshold.
+ * Per-player listeners make these too frequent to record every one.
+ */
+@Name("io.minimum.minecraft.tobench.Registration")
+@Label("Listener Registration")
+@Category("Event Bus")
+@Description("A listener registered with or unregistered from an event bus")
+@Threshold("1 ms")
+public class RegistrationEvent extends jdk.jfr.Event
+{
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Listener Class")
+    private Class<?> listenerClass;
+
+    @Label("Event Classes")
+    private String eventClasses;
+
+    public static RegistrationEvent start()
+    {
+        RegistrationEvent jfr = new RegistrationEvent();
+        jfr.begin();
+        return jfr;
+    }
+
+    public void finish(String operation, Object listener, Collection<Class<?>> eventClasses)
+    {
+        if ( shouldCommit() )
+        {
+            this.operation = operation;
+            this.listenerClass = listener.getClass();
+            StringBuilder names = new StringBuilder();
+            for ( Class<?> eventClass : eventClasses )
+            {
+                if ( names.length() != 0 )
+                {
+                    names.append( ", " );
+                }
+                names.append( eventClass.getName() );
+            }
+            this.eventClasses = names.toString();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package io.minimum.minecraft.tobench.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code ListenerDispatcher} for every class declaring
+ * {@code @EventHandler} methods, so buses can discover and call handlers
+ * without reflection.
+ * <p>
+ * Classes the generated code could not call into (private handlers, private
+ * enclosing classes, primitive event parameters, event types not accessible
+ * from the listener's package) are skipped with a note and keep using the
+ * reflective path at runtime.
+ */
+@SupportedAnnotationTypes(EventHandlerProcessor.EVENT_HANDLER)
+public class EventHandlerProcessor extends AbstractProcessor
+{
+
+    static final String EVENT_HANDLER = "io.minimum.minecraft.tobench.EventHandler";
+    private static final String DISPATCHER = "io.minimum.minecraft.tobench.ListenerDispatcher";
+    private static final String SUFFIX = "_EventDispatcher";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+    {
+        for ( TypeElement annotation : annotations )
+        {
+            Map<TypeElement, List<ExecutableElement>> byListener = new LinkedHashMap<>();
+            for ( Element element : roundEnv.getElementsAnnotatedWith( annotation ) )
+            {
+                if ( element.getKind() != ElementKind.METHOD )
+                {
+                    continue;
+                }
+                TypeElement listener = (TypeElement) element.getEnclosingElement();
+                List<ExecutableElement> methods = byListener.get( listener );
+                if ( methods == null )
+                {
+                    methods = new ArrayList<>();
+                    byListener.put( listener, methods );
+                }
+                methods.add( (ExecutableElement) element );
+            }
+
+            for ( Map.Entry<TypeElement, List<ExecutableElement>> e : byListener.entrySet() )
+            {
+                if ( isEligible( e.getKey(), e.getValue() ) )
+                {
+                    try
+                    {
+                        generate( e.getKey(), e.getValue() );
+                    } catch ( IOException ex )
+                    {
+                        processingEnv.getMessager().printMessage( Diagnostic.Kind.ERROR, "Unable to write dispatcher: " + ex, e.getKey() );
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isEligible(TypeElement listener, List<ExecutableElement> methods)
+    {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf( listener );
+        for ( Element type = listener; type.getKind() != ElementKind.PACKAGE; type = type.getEnclosingElement() )
+        {
+            if ( type.getModifiers().contains( Modifier.PRIVATE ) || ( type.getKind() != ElementKind.CLASS && type.getKind() != ElementKind.ENUM ) )
+            {
+                return skip( listener, "listener class is not accessible to generated code" );
+            }
+        }
+        for ( ExecutableElement method : methods )
+        {
+            if ( method.getModifiers().contains( Modifier.PRIVATE ) || method.getModifiers().contains( Modifier.STATIC ) )
+            {
+                return skip( method, "handler is private or static" );
+            }
+            if ( method.getParameters().size() == 1 && method.getParameters().get( 0 ).asType().getKind().isPrimitive() )
+            {
+                return skip( method, "handler takes a primitive argument" );
+            }
+            if ( method.getParameters().size() == 1 && !isAccessible( processingEnv.getTypeUtils().erasure( method.getParameters().get( 0 ).asType() ), pkg ) )
+            {
+                return skip( method, "event class is not accessible to generated code" );
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks the generated dispatcher, living in the given package, may name
+     * the type: neither it nor its enclosing classes may be private, or
+     * package-private or protected in another package.
+     */
+    private boolean isAccessible(TypeMirror type, PackageElement from)
+    {
+        if ( type.getKind() == TypeKind.ARRAY )
+        {
+            return isAccessible( ( (ArrayType) type ).getComponentType(), from );
+        }
+        if ( type.getKind() != TypeKind.DECLARED )
+        {
+            return true;
+        }
+        for ( Element element = ( (DeclaredType) type ).asElement(); element.getKind() != ElementKind.PACKAGE; element = element.getEnclosingElement() )
+        {
+            if ( !element.getKind().isClass() && !element.getKind().isInterface() )
+            {
+                // Local and anonymous classes can't be named from outside their method.
+                return false;
+            }
+            if ( element.getModifiers().contains( Modifier.PRIVATE ) )
+            {
+                return false;
+            }
+            if ( !element.getModifiers().contains( Modifier.PUBLIC ) && !processingEnv.getElementUtils().getPackageOf( element ).equals( from ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean skip(Element element, String reason)
+    {
+        processingEnv.getMessager().printMessage( Diagnostic.Kind.NOTE, "Not generating dispatcher, falling back to reflection: " + reason, element );
+        return false;
+    }
+
+    private void generate(TypeElement listener, List<ExecutableElement> methods) throws IOException
+    {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf( listener );
+        String binaryName = processingEnv.getElementUtils().getBinaryName( listener ).toString();
+        String simpleName = pkg.isUnnamed() ? binaryName : binaryName.substring( pkg.getQualifiedName().length() + 1 );
+        String listenerType = processingEnv.getTypeUtils().erasure( listener.asType() ).toString();
+
+        // Malformed handlers are dropped here, exactly as findHandlers drops them at runtime.
+        List<ExecutableElement> handlers = new ArrayList<>( methods.size() );
+        for ( ExecutableElement method : methods )
+        {
+            if ( method.getParameters().size() == 1 )
+            {
+                handlers.add( method );
+            } else
+            {
+                processingEnv.getMessager().printMessage( Diagnostic.Kind.WARNING, "Handler does not have single argument", method );
+            }
+        }
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile( binaryName + SUFFIX, listener );
+        try ( PrintWriter out = new PrintWriter( file.openWriter() ) )
+        {
+            if ( !pkg.isUnnamed() )
+            {
+                out.println( "package " + pkg.getQualifiedName() + ";" );
+                out.println();
+            }
+            out.println( "public final class " + simpleName + SUFFIX + " implements " + DISPATCHER );
+            out.println( "{" );
+            out.println();
+            out.println( "    private static final Class<?>[] EVENT_CLASSES = {" );
+            for ( ExecutableElement method : handlers )
+            {
+                out.println( "            " + eventType( method ) + ".class," );
+            }
+            out.println( "    };" );
+            out.println( "    private static final byte[] PRIORITIES = {" );
+            for ( ExecutableElement method : handlers )
+            {
+                out.println( "            (byte) " + priority( method ) + "," );
+            }
+            out.println( "    };" );
+            out.println( "    private static final String[] METHOD_NAMES = {" );
+            for ( ExecutableElement method : handlers )
+            {
+                out.println( "            \"" + method.getSimpleName() + "\"," );
+            }
+            out.println( "    };" );
+            out.println();
+            out.println( "    @Override" );
+            out.println( "    public int getHandlerCount()" );
+            out.println( "    {" );
+            out.println( "        return " + handlers.size() + ";" );
+            out.println( "    }" );
+            out.println();
+            out.println( "    @Override" );
+            out.println( "    public Class<?> getEventClass(int handler)" );
+            out.println( "    {" );
+            out.println( "        return EVENT_CLASSES[handler];" );
+            out.println( "    }" );
+            out.println();
+            out.println( "    @Override" );
+            out.println( "    public byte getPriority(int handler)" );
+            out.println( "    {" );
+            out.println( "        return PRIORITIES[handler];" );
+            out.println( "    }" );
+            out.println();
+            out.println( "    @Override" );
+            out.println( "    public String getMethodName(int handler)" );
+            out.println( "    {" );
+            out.println( "        return METHOD_NAMES[handler];" );
+            out.println( "    }" );
+            out.println();
+            out.println( "    @Override" );
+            out.println( "    public Object invoke(int handler, Object listener, Object event) throws Throwable" );
+            out.println( "    {" );
+            out.println( "        switch ( handler )" );
+            out.println( "        {" );
+            for ( int i = 0; i < handlers.size(); i++ )
+            {
+                ExecutableElement method = handlers.get( i );
+                String call = "( (" + listenerType + ") listener )." + method.getSimpleName() + "( (" + eventType( method ) + ") event );";
+                out.println( "            case " + i + ":" );
+                if ( method.getReturnType().getKind() == TypeKind.VOID )
+                {
+                    out.println( "                " + call );
+                    out.println( "                return null;" );
+                } else
+                {
+                    out.println( "                return " + call );
+                }
+            }
+            out.println( "            default:" );
+            out.println( "                throw new IndexOutOfBoundsException( String.valueOf( handler ) );" );
+            out.println( "        }" );
+            out.println( "    }" );
+            out.println( "}" );
+        }
+    }
+
+    private String eventType(ExecutableElement method)
+    {
+        TypeMirror type = processingEnv.getTypeUtils().erasure( method.getParameters().get( 0 ).asType() );
+        return type.getKind() == TypeKind.DECLARED || type.getKind() == TypeKind.ARRAY ? type.toString() : "Object";
+    }
+
+    private Object priority(ExecutableElement method)
+    {
+        for ( AnnotationMirror mirror : method.getAnnotationMirrors() )
+        {
+            if ( ( (TypeElement) mirror.getAnnotationType().asElement() ).getQualifiedName().contentEquals( EVENT_HANDLER ) )
+            {
+                for ( Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : mirror.getElementValues().entrySet() )
+                {
+                    if ( value.getKey().getSimpleName().contentEquals( "priority" ) )
+                    {
+                        return value.getValue().getValue();
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+}
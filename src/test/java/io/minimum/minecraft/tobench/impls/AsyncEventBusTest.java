@@ -0,0 +1,84 @@
+package io.minimum.minecraft.tobench.impls;
+
+import io.minimum.minecraft.tobench.AsyncEvent;
+import io.minimum.minecraft.tobench.EventHandler;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class AsyncEventBusTest
+{
+
+    private final AtomicInteger completions = new AtomicInteger();
+    private final BiConsumer<TestEvent, Throwable> done = new BiConsumer<TestEvent, Throwable>()
+    {
+        @Override
+        public void accept(TestEvent event, Throwable failure)
+        {
+            completions.incrementAndGet();
+        }
+    };
+    private final CompletableFuture<Void> lookup = new CompletableFuture<>();
+    private AsyncEventBus bus;
+
+    @Before
+    public void setup()
+    {
+        bus = new AsyncEventBus( new COWEventBus() );
+        bus.register( new IntentListener() );
+    }
+
+    @Test
+    public void completesOnceIntentsComplete()
+    {
+        bus.post( new TestEvent( done ) );
+        assertEquals( 0, completions.get() );
+
+        lookup.complete( null );
+        assertEquals( 1, completions.get() );
+    }
+
+    @Test
+    public void rejectsSecondPost()
+    {
+        TestEvent event = new TestEvent( done );
+        bus.post( event );
+        try
+        {
+            bus.post( event );
+            fail( "Posted the same event twice" );
+        } catch ( IllegalStateException expected )
+        {
+        }
+        assertEquals( 0, completions.get() );
+
+        lookup.complete( null );
+        assertEquals( 1, completions.get() );
+    }
+
+    public static class TestEvent extends AsyncEvent<TestEvent>
+    {
+
+        public TestEvent(BiConsumer<TestEvent, Throwable> done)
+        {
+            super( done );
+        }
+    }
+
+    public class IntentListener
+    {
+
+        @EventHandler
+        public CompletionStage<Void> onTest(TestEvent event)
+        {
+            return lookup;
+        }
+    }
+}
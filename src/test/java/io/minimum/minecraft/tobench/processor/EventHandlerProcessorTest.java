@@ -0,0 +1,112 @@
+package io.minimum.minecraft.tobench.processor;
+
+import io.minimum.minecraft.tobench.EventHandler;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EventHandlerProcessorTest
+{
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+    @Test
+    public void generatesDispatcherForAccessibleEventType() throws Exception
+    {
+        File out = compile(
+                "test/PublicEvent.java", "package test; public class PublicEvent {}",
+                "test/Listener.java", "package test; public class Listener {"
+                        + " @io.minimum.minecraft.tobench.EventHandler public void on(PublicEvent event) {} }" );
+
+        assertTrue( new File( out, "test/Listener_EventDispatcher.class" ).isFile() );
+    }
+
+    @Test
+    public void privateEventTypeFallsBackToReflection() throws Exception
+    {
+        File out = compile(
+                "test/Outer.java", "package test; public class Outer {"
+                        + " private static class SecretEvent {}"
+                        + " @io.minimum.minecraft.tobench.EventHandler public void on(SecretEvent event) {} }" );
+
+        assertTrue( new File( out, "test/Outer.class" ).isFile() );
+        assertFalse( new File( out, "test/Outer_EventDispatcher.class" ).exists() );
+        assertNote( "event class is not accessible" );
+    }
+
+    @Test
+    public void protectedEventTypeFromOtherPackageFallsBackToReflection() throws Exception
+    {
+        File out = compile(
+                "a/Base.java", "package a; public class Base { protected static class HiddenEvent {} }",
+                "b/Listener.java", "package b; public class Listener extends a.Base {"
+                        + " @io.minimum.minecraft.tobench.EventHandler public void on(HiddenEvent[] events) {} }" );
+
+        assertTrue( new File( out, "b/Listener.class" ).isFile() );
+        assertFalse( new File( out, "b/Listener_EventDispatcher.class" ).exists() );
+        assertNote( "event class is not accessible" );
+    }
+
+    /**
+     * Compiles the sources, given as alternating paths and contents, with
+     * the processor and returns the output directory. Fails if they don't
+     * compile.
+     */
+    private File compile(String... sources) throws IOException
+    {
+        File src = folder.newFolder( "src" );
+        File out = folder.newFolder( "out" );
+        List<File> files = new ArrayList<>();
+        for ( int i = 0; i < sources.length; i += 2 )
+        {
+            File file = new File( src, sources[i] );
+            file.getParentFile().mkdirs();
+            Files.write( file.toPath(), sources[i + 1].getBytes( StandardCharsets.UTF_8 ) );
+            files.add( file );
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try ( StandardJavaFileManager fileManager = compiler.getStandardFileManager( diagnostics, Locale.ROOT, StandardCharsets.UTF_8 ) )
+        {
+            String classPath = EventHandler.class.getProtectionDomain().getCodeSource().getLocation().getPath();
+            List<String> options = Arrays.asList( "-classpath", classPath, "-d", out.getPath(), "-s", out.getPath(),
+                    "-processor", EventHandlerProcessor.class.getName() );
+            boolean success = compiler.getTask( null, fileManager, diagnostics, options, null, fileManager.getJavaFileObjectsFromFiles( files ) ).call();
+            assertTrue( "Compilation failed: " + diagnostics.getDiagnostics(), success );
+        }
+        return out;
+    }
+
+    private void assertNote(String message)
+    {
+        for ( Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics() )
+        {
+            if ( diagnostic.getKind() == Diagnostic.Kind.NOTE && diagnostic.getMessage( Locale.ROOT ).contains( message ) )
+            {
+                return;
+            }
+        }
+        throw new AssertionError( "No note containing \"" + message + "\" in " + diagnostics.getDiagnostics() );
+    }
+}